@@ -0,0 +1,22 @@
+#!/bin/bash
+# Builds src/ and bench/ and runs one benchmark:
+#   ./bench.sh TrieBenchmark [sizes] [--save] [--check] [--warmup-ms N] [--measure-ms N] [--tolerance F]
+#   ./bench.sh EncodingBenchmark [--save] [--check]
+#   ./bench.sh JsonBenchmark [encoders] [--save] [--check]
+#   ./bench.sh LoadGenerator --start main --mix browse --rate 200 [--save] [--compare]
+#   ./bench.sh TmdbStub [port] [movies] [latencyMs]   (fake TMDb server for local testing)
+# Baselines live in bench/baselines/; see bench/com/movieexplorer/Bench.java.
+set -e
+cd "$(dirname "$0")"
+
+BENCHMARK=${1:-TrieBenchmark}
+[ $# -gt 0 ] && shift
+
+OUT=target/bench
+rm -rf "$OUT"
+mkdir -p "$OUT"
+echo "🔧 Compiling benchmarks..."
+javac -encoding UTF-8 -Xlint:all -d "$OUT" $(find src bench -name "*.java")
+
+# Fixed heap so GC behaviour doesn't drift between runs
+exec java -Xms4g -Xmx4g -XX:+AlwaysPreTouch -Dfile.encoding=UTF-8 -cp "$OUT" "com.movieexplorer.$BENCHMARK" "$@"
@@ -0,0 +1,225 @@
+package com.movieexplorer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+// Small stand-in for JMH, which this project has no build tool to pull in.
+// Each benchmark is warmed up for warmupMs, then run for measureMs (and at least
+// MIN_OPS times) on the calling thread. It reports throughput, mean ns/op, p50/p99
+// per-call latency and bytes allocated per op (what JMH's -prof gc reports as
+// gc.alloc.rate.norm).
+//
+// Results can be saved as a baseline (bench/baselines/<suite>.tsv) and later runs
+// are compared against it; anything slower or allocating more than the tolerance
+// is flagged as a regression. Baselines are only comparable on the same machine
+// and JVM, so save one before changing code and check against it after.
+//
+// Options (after the suite's own arguments):
+//   --save              write this run as the suite's baseline
+//   --check             exit with status 2 if anything regressed
+//   --warmup-ms N       default 1000
+//   --measure-ms N      default 2000
+//   --tolerance F       allowed slowdown, default 0.15 (15%)
+final class Bench {
+    private static final int MIN_OPS = 5;
+    private static final int MAX_SAMPLES = 1 << 20;
+    private static final Path BASELINES = Paths.get("bench", "baselines");
+    private static final PrintStream DISCARD = new PrintStream(OutputStream.nullOutputStream());
+
+    // One benchmark call; the return value is folded into a sink so the JIT can't drop the work
+    interface Op {
+        long run(int i);
+    }
+
+    static final class Result {
+        final String name;
+        final long calls;
+        final double nsPerOp;
+        final double opsPerSecond;
+        final long p50Ns;
+        final long p99Ns;
+        final double allocatedPerOp;
+
+        Result(String name, long calls, double nsPerOp, long p50Ns, long p99Ns, double allocatedPerOp) {
+            this.name = name;
+            this.calls = calls;
+            this.nsPerOp = nsPerOp;
+            this.opsPerSecond = 1e9 / nsPerOp;
+            this.p50Ns = p50Ns;
+            this.p99Ns = p99Ns;
+            this.allocatedPerOp = allocatedPerOp;
+        }
+    }
+
+    private final String suite;
+    private final long warmupMs;
+    private final long measureMs;
+    private final double tolerance;
+    private final boolean save;
+    private final boolean check;
+    private final List<Result> results = new ArrayList<>();
+    private final long[] samples = new long[MAX_SAMPLES]; // allocated up front, outside any measurement
+    private long sink;
+
+    private Bench(String suite, long warmupMs, long measureMs, double tolerance, boolean save, boolean check) {
+        this.suite = suite;
+        this.warmupMs = warmupMs;
+        this.measureMs = measureMs;
+        this.tolerance = tolerance;
+        this.save = save;
+        this.check = check;
+    }
+
+    // Takes the harness options out of args; what is left belongs to the suite
+    static Bench fromArgs(String suite, List<String> args) {
+        long warmupMs = 1_000;
+        long measureMs = 2_000;
+        double tolerance = 0.15;
+        boolean save = false;
+        boolean check = false;
+        for (Iterator<String> it = args.iterator(); it.hasNext(); ) {
+            String arg = it.next();
+            switch (arg) {
+                case "--save": save = true; break;
+                case "--check": check = true; break;
+                case "--warmup-ms": it.remove(); warmupMs = Long.parseLong(it.next()); break;
+                case "--measure-ms": it.remove(); measureMs = Long.parseLong(it.next()); break;
+                case "--tolerance": it.remove(); tolerance = Double.parseDouble(it.next()); break;
+                default: continue;
+            }
+            it.remove();
+        }
+        return new Bench(suite, warmupMs, measureMs, tolerance, save, check);
+    }
+
+    Result run(String name, Op op) {
+        return run(name, 1, op);
+    }
+
+    // opsPerCall: how many logical operations one call performs (e.g. titles per
+    // insertAll), so ns/op and allocation are per operation, like JMH's
+    // @OperationsPerInvocation. Latency percentiles stay per call.
+    Result run(String name, int opsPerCall, Op op) {
+        // The code under test may log per call; that is measured, the terminal isn't
+        PrintStream console = System.out;
+        System.setOut(DISCARD);
+        try {
+            int i = 0;
+            long warmupEnd = System.nanoTime() + warmupMs * 1_000_000;
+            do {
+                sink += op.run(i++);
+            } while (System.nanoTime() < warmupEnd);
+
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long thread = Thread.currentThread().getId();
+            int calls = 0;
+            long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            long end = start + measureMs * 1_000_000;
+            long now = start;
+            while (calls < MIN_OPS || now < end) {
+                long before = now;
+                sink += op.run(i++);
+                now = System.nanoTime();
+                if (calls < MAX_SAMPLES) samples[calls] = now - before;
+                calls++;
+            }
+            long elapsed = now - start;
+            long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+
+            int recorded = Math.min(calls, MAX_SAMPLES);
+            Arrays.sort(samples, 0, recorded);
+            long ops = (long) calls * opsPerCall;
+            Result result = new Result(name, calls, elapsed / (double) ops,
+                    samples[(int) Math.ceil(0.50 * recorded) - 1], samples[(int) Math.ceil(0.99 * recorded) - 1],
+                    allocated / (double) ops);
+            results.add(result);
+            return result;
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    // ========== REPORTING ==========
+    // Prints the results next to the baseline, saves if asked; returns the exit status
+    int report() throws IOException {
+        Map<String, double[]> baseline = loadBaseline();
+        System.out.printf("%n%-44s %10s %14s %12s %12s %14s   %s%n",
+                suite, "calls", "ops/s", "p50", "p99", "alloc B/op", "vs baseline");
+        int regressions = 0;
+        for (Result r : results) {
+            double[] base = baseline.get(r.name);
+            String delta = "";
+            if (base != null) {
+                double time = r.nsPerOp / base[0] - 1;
+                double alloc = r.allocatedPerOp - base[1];
+                boolean regressed = time > tolerance || alloc > Math.max(16, base[1] * tolerance);
+                if (regressed) regressions++;
+                delta = String.format("%+.1f%% time, %+.0f B%s", time * 100, alloc, regressed ? "  << REGRESSION" : "");
+            }
+            System.out.printf("%-44s %10d %14s %12s %12s %14.1f   %s%n", r.name, r.calls, formatRate(r.opsPerSecond),
+                    formatNanos(r.p50Ns), formatNanos(r.p99Ns), r.allocatedPerOp, delta);
+        }
+        if (sink == 42) System.out.println(); // keeps sink observable
+
+        if (save) {
+            saveBaseline();
+            System.out.println("💾 Baseline saved to " + baselineFile());
+        } else if (baseline.isEmpty()) {
+            System.out.println("(no baseline at " + baselineFile() + "; run with --save to record one)");
+        }
+        if (regressions > 0) System.out.println("⚠️ " + regressions + " regression(s) beyond " + (int) (tolerance * 100) + "%");
+        return check && regressions > 0 ? 2 : 0;
+    }
+
+    private Path baselineFile() {
+        return BASELINES.resolve(suite + ".tsv");
+    }
+
+    // name -> {ns/op, alloc B/op}
+    private Map<String, double[]> loadBaseline() throws IOException {
+        Map<String, double[]> baseline = new HashMap<>();
+        if (!Files.exists(baselineFile())) return baseline;
+        for (String line : Files.readAllLines(baselineFile(), StandardCharsets.UTF_8)) {
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] cols = line.split("\t");
+            baseline.put(cols[0], new double[]{Double.parseDouble(cols[1]), Double.parseDouble(cols[4])});
+        }
+        return baseline;
+    }
+
+    private void saveBaseline() throws IOException {
+        StringBuilder out = new StringBuilder();
+        out.append("# ").append(suite).append(" baseline: java ").append(System.getProperty("java.version"))
+                .append(", ").append(System.getProperty("os.arch")).append(", ")
+                .append(Runtime.getRuntime().availableProcessors()).append(" cpus\n");
+        out.append("# name\tns/op\tp50 ns\tp99 ns\talloc B/op\n");
+        for (Result r : results) {
+            out.append(r.name).append('\t').append(String.format(Locale.ROOT, "%.1f", r.nsPerOp)).append('\t')
+                    .append(r.p50Ns).append('\t').append(r.p99Ns).append('\t')
+                    .append(String.format(Locale.ROOT, "%.1f", r.allocatedPerOp)).append('\n');
+        }
+        Files.createDirectories(BASELINES);
+        Files.write(baselineFile(), out.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String formatNanos(long nanos) {
+        if (nanos < 10_000) return nanos + " ns";
+        if (nanos < 10_000_000) return String.format("%.1f µs", nanos / 1e3);
+        return String.format("%.1f ms", nanos / 1e6);
+    }
+
+    private static String formatRate(double perSecond) {
+        if (perSecond >= 1e6) return String.format("%.2fM", perSecond / 1e6);
+        if (perSecond >= 1e3) return String.format("%.1fk", perSecond / 1e3);
+        return String.format("%.1f", perSecond);
+    }
+    // ===============================
+}
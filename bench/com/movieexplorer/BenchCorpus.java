@@ -0,0 +1,105 @@
+package com.movieexplorer;
+
+import java.util.*;
+
+// Synthetic but realistically skewed movie titles for benchmarks. Title words are
+// drawn from a vocabulary by a Zipf distribution (s ~ 1.1), as in real catalogues:
+// a handful of words ("the", "love", "night") start a large share of titles and
+// there is a long tail of rare ones. So prefix queries hit anything from a few
+// movies to a large part of the catalogue, like real keystrokes do. Seeded, so a
+// given size always produces the same corpus.
+final class BenchCorpus {
+    private static final String[] COMMON_WORDS = {
+            "the", "love", "night", "last", "man", "dark", "city", "girl", "dead", "story", "life", "house", "war",
+            "day", "world", "blood", "black", "king", "secret", "time", "lost", "american", "star", "dream", "summer",
+            "return", "christmas", "big", "little", "red", "home", "death", "murder", "wild", "dragon", "ghost", "fire",
+            "heart", "shadow", "mystery", "island", "road", "king's", "lady", "angel", "lady's", "game", "kill", "moon",
+            "family", "the last", "inside", "beyond", "princess", "hunter", "legend", "devil", "zombie", "paris",
+            "journey", "street", "school", "river", "storm", "winter", "spring", "queen", "brother", "sister", "father",
+            "mother", "silent", "golden", "broken", "hidden", "final", "perfect", "deadly", "crazy", "wonderful",
+            "beautiful", "good", "bad", "ugly", "high", "lonely", "young", "old", "new", "hollywood", "wedding",
+            "escape", "hotel", "mission", "space", "planet", "alien", "robot", "monster", "spirit", "night's",
+            "amélie", "señor", "über", "cœur", "東京", "夜"};
+    private static final String[] SYLLABLES = {"ka", "ri", "mo", "ten", "sa", "lo", "vi", "dor", "an", "el", "zu",
+            "bra", "qui", "nex", "tor", "la", "mi", "ro", "sen", "ta"};
+    private static final int VOCABULARY = 20_000;
+
+    final List<Movie> movies;
+    final String[] titles;
+
+    private BenchCorpus(List<Movie> movies) {
+        this.movies = movies;
+        this.titles = new String[movies.size()];
+        for (int i = 0; i < titles.length; i++) titles[i] = movies.get(i).getTitle();
+    }
+
+    static BenchCorpus of(int size) {
+        Random random = new Random(size);
+        String[] vocabulary = vocabulary(random);
+        Zipf words = new Zipf(vocabulary.length, 1.1, random);
+
+        List<Movie> movies = new ArrayList<>(size);
+        StringBuilder title = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            title.setLength(0);
+            int length = 1 + Math.min(3, (int) Math.abs(random.nextGaussian() * 1.3));
+            for (int w = 0; w < length; w++) {
+                if (w > 0) title.append(' ');
+                String word = vocabulary[words.next()];
+                title.append(w == 0 ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : word);
+            }
+            if (random.nextInt(12) == 0) title.append(' ').append(2 + random.nextInt(4)); // sequels
+            double rating = Math.round(random.nextDouble() * 90 + 10) / 10.0;
+            movies.add(new Movie(i + 1, title.toString(), 1930 + random.nextInt(95), rating,
+                    null, Collections.singletonList("Drama"), null));
+        }
+        return new BenchCorpus(movies);
+    }
+
+    // Prefixes of corpus titles, picked so popular titles are asked for more often,
+    // lower-cased and cut to between minLength and maxLength characters
+    String[] prefixes(int count, int minLength, int maxLength, long seed) {
+        Random random = new Random(seed);
+        Zipf pick = new Zipf(titles.length, 0.8, random);
+        String[] prefixes = new String[count];
+        for (int i = 0; i < count; i++) {
+            String title = titles[pick.next()].toLowerCase();
+            int length = Math.min(title.length(), minLength + random.nextInt(maxLength - minLength + 1));
+            prefixes[i] = title.substring(0, length);
+        }
+        return prefixes;
+    }
+
+    private static String[] vocabulary(Random random) {
+        String[] words = Arrays.copyOf(COMMON_WORDS, VOCABULARY);
+        for (int i = COMMON_WORDS.length; i < VOCABULARY; i++) {
+            StringBuilder word = new StringBuilder();
+            int syllables = 2 + random.nextInt(3);
+            for (int s = 0; s < syllables; s++) word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            words[i] = word.toString();
+        }
+        return words;
+    }
+
+    // Ranks 0..n-1 with P(k) proportional to 1 / (k + 1)^s
+    static final class Zipf {
+        private final double[] cdf;
+        private final Random random;
+
+        Zipf(int n, double s, Random random) {
+            this.random = random;
+            this.cdf = new double[n];
+            double sum = 0;
+            for (int k = 0; k < n; k++) {
+                sum += 1 / Math.pow(k + 1, s);
+                cdf[k] = sum;
+            }
+            for (int k = 0; k < n; k++) cdf[k] /= sum;
+        }
+
+        int next() {
+            int idx = Arrays.binarySearch(cdf, random.nextDouble());
+            return Math.min(cdf.length - 1, idx >= 0 ? idx : -idx - 1);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.movieexplorer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.*;
+import java.util.zip.GZIPOutputStream;
+
+// JSON vs CBOR for movie responses: bytes on the wire (raw and gzipped) and encode
+// cost through Bench, for a page and a full catalog, with every field and with the
+// card projection. The encoders are JsonBenchmark's, narrowed to the profile.
+//
+//   ./bench.sh EncodingBenchmark [--save] [--check] [--measure-ms N]
+public class EncodingBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        Bench bench = Bench.fromArgs("EncodingBenchmark", new ArrayList<>(Arrays.asList(args)));
+
+        Map<String, List<Movie>> payloads = new LinkedHashMap<>();
+        payloads.put("page(50)", movies(50));
+        payloads.put("catalog(1000)", movies(1_000));
+
+        System.out.printf("%-30s %10s %10s%n", "payload", "bytes", "gzip");
+        for (Map.Entry<String, List<Movie>> payload : payloads.entrySet()) {
+            List<Movie> movies = payload.getValue();
+            for (String profile : List.of("all", "card")) {
+                int fields = MovieJsonWriter.fields(profile);
+                Map<String, JsonBenchmark.Encoder> encoders = new LinkedHashMap<>();
+                encoders.put("json", JsonBenchmark.jsonOutput(fields));
+                encoders.put("cbor", JsonBenchmark.cborOutput(fields));
+                for (Map.Entry<String, JsonBenchmark.Encoder> encoder : encoders.entrySet()) {
+                    String name = payload.getKey() + " " + profile + " " + encoder.getKey();
+                    byte[] body = encoder.getValue().body(movies);
+                    System.out.printf("%-30s %10d %10d%n", name, body.length, gzipped(body));
+                    bench.run(name, i -> encoder.getValue().encode(movies));
+                }
+            }
+        }
+        System.exit(bench.report());
+    }
+
+    private static int gzipped(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.size();
+    }
+
+    // TMDb-like movies: listing-sized overviews, a few shared genres, TMDb image paths
+    static List<Movie> movies(int count) {
+        String[] genres = {"Action", "Drama", "Comedy", "Thriller", "Science Fiction", "Animation", "Horror", "Romance"};
+        String[] words = {"a", "young", "detective", "must", "uncover", "the", "truth", "behind", "mysterious",
+                "disappearance", "of", "her", "family", "while", "city", "falls", "into", "chaos", "and", "ancient"};
+        Random random = new Random(42);
+        List<Movie> movies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> tmdb = new HashMap<>();
+            tmdb.put("id", 100_000 + i);
+            tmdb.put("title", "Movie " + Integer.toString(i, 36) + " " + words[random.nextInt(words.length)]);
+            tmdb.put("release_date", (1960 + random.nextInt(65)) + "-06-01");
+            tmdb.put("vote_average", Math.round(random.nextDouble() * 100) / 10.0);
+            tmdb.put("popularity", Math.round(random.nextDouble() * 500_000) / 1000.0);
+            tmdb.put("poster_path", "/" + Long.toString(random.nextLong() & Long.MAX_VALUE, 36) + ".jpg");
+            tmdb.put("backdrop_path", "/" + Long.toString(random.nextLong() & Long.MAX_VALUE, 36) + ".jpg");
+            tmdb.put("original_language", random.nextInt(4) == 0 ? "fr" : "en");
+            StringBuilder overview = new StringBuilder();
+            for (int w = 0; w < 40; w++) overview.append(words[random.nextInt(words.length)]).append(' ');
+            tmdb.put("overview", overview.toString().trim() + ".");
+            List<Map<String, Object>> movieGenres = new ArrayList<>();
+            for (int g = 0; g < 1 + random.nextInt(3); g++) {
+                movieGenres.add(Map.of("name", genres[random.nextInt(genres.length)]));
+            }
+            tmdb.put("genres", movieGenres);
+            movies.add(TmdbCatalogLoader.toMovie(tmdb));
+        }
+        return movies;
+    }
+}
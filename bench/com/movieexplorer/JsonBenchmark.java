@@ -0,0 +1,145 @@
+package com.movieexplorer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
+
+// Every way this codebase turns movies into a response body, on the same payloads:
+// one movie, a 50-movie page, a 1000-movie catalog and a page of escape-heavy,
+// non-ASCII text. Reports ns/op and bytes allocated per op through Bench.
+//
+//   ./bench.sh JsonBenchmark [encoder,encoder...] [--save] [--check] [--measure-ms N]
+//
+// The String-producing paths also pay for getBytes(UTF_8), as sending them did,
+// and the Map-based ones for Movie.toMap(); one op is one complete response body.
+// To measure a new encoder, add it to ENCODERS. EncodingBenchmark uses the same
+// Encoders to compare JSON and CBOR sizes and field projections.
+public class JsonBenchmark {
+
+    interface Encoder {
+        // Encodes the movies as one response body and returns its size in bytes; this is what is timed
+        long encode(List<Movie> movies);
+
+        // The same body, for reporting its size on the wire (not timed)
+        byte[] body(List<Movie> movies);
+    }
+
+    // Encoders that produce a byte[] anyway; encode is its length
+    static Encoder ofBytes(Function<List<Movie>, byte[]> encoder) {
+        return new Encoder() {
+            public long encode(List<Movie> movies) {
+                return encoder.apply(movies).length;
+            }
+
+            public byte[] body(List<Movie> movies) {
+                return encoder.apply(movies);
+            }
+        };
+    }
+
+    // JsonOutput with only the given MovieJsonWriter fields
+    static Encoder jsonOutput(int fields) {
+        return new Encoder() {
+            public long encode(List<Movie> movies) {
+                return JsonOutput.reuse().projectMovies(fields).writeValue(movies).size();
+            }
+
+            public byte[] body(List<Movie> movies) {
+                return JsonOutput.reuse().projectMovies(fields).writeValue(movies).toByteArray();
+            }
+        };
+    }
+
+    // CborOutput with only the given MovieJsonWriter fields
+    static Encoder cborOutput(int fields) {
+        return new Encoder() {
+            public long encode(List<Movie> movies) {
+                return CborOutput.reuse().projectMovies(fields).stringRefs().writeValue(movies).size();
+            }
+
+            public byte[] body(List<Movie> movies) {
+                return CborOutput.reuse().projectMovies(fields).stringRefs().writeValue(movies).toByteArray();
+            }
+        };
+    }
+
+    static final Map<String, Encoder> ENCODERS = new LinkedHashMap<>();
+
+    static {
+        // Main's JsonUtil over Movie.toMap(), as Main answered before JsonOutput
+        ENCODERS.put("JsonUtil", ofBytes(movies -> {
+            List<Map<String, Object>> maps = new ArrayList<>(movies.size());
+            for (Movie movie : movies) maps.add(movie.toMap());
+            return JsonUtil.toJson(maps).getBytes(StandardCharsets.UTF_8);
+        }));
+        // Movie.toJson() per movie, joined into an array
+        ENCODERS.put("Movie.toJson", ofBytes(movies -> {
+            StringBuilder json = new StringBuilder("[");
+            for (int i = 0; i < movies.size(); i++) {
+                if (i > 0) json.append(',');
+                json.append(movies.get(i).toJson());
+            }
+            return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+        }));
+        // BackendServer's row encoder; lists and maps come out as their toString()
+        ENCODERS.put("BackendServer.convertToJson", ofBytes(movies -> {
+            List<Map<String, Object>> maps = new ArrayList<>(movies.size());
+            for (Movie movie : movies) maps.add(movie.toMap());
+            return BackendServer.convertToJson(maps).getBytes(StandardCharsets.UTF_8);
+        }));
+        // What both servers send now
+        ENCODERS.put("JsonOutput", jsonOutput(MovieJsonWriter.ALL));
+        // Not JSON, but the same responses for clients that accept CBOR
+        ENCODERS.put("CborOutput", cborOutput(MovieJsonWriter.ALL));
+    }
+
+    private static final String[] AWKWARD_TEXT = {
+            "\"Quoted\" title with a \\backslash\\",
+            "Amélie: le fabuleux destin d'Amélie Poulain",
+            "千と千尋の神隠し",
+            "Line one\nline two\r\n\ttabbed",
+            "Léon — “The Professional” · 1994 ★★★★☆",
+            "Крёстный отец",
+            "C:\\Movies\\\"Director's Cut\"\\",
+            "Ça tourne 🎬🍿 emoji ahead"};
+
+    public static void main(String[] args) throws IOException {
+        List<String> rest = new ArrayList<>(Arrays.asList(args));
+        Bench bench = Bench.fromArgs("JsonBenchmark", rest);
+        Set<String> names = rest.isEmpty() ? ENCODERS.keySet() : new LinkedHashSet<>(Arrays.asList(rest.get(0).split(",")));
+
+        Map<String, List<Movie>> payloads = new LinkedHashMap<>();
+        payloads.put("movie", EncodingBenchmark.movies(1));
+        payloads.put("page(50)", EncodingBenchmark.movies(50));
+        payloads.put("catalog(1000)", EncodingBenchmark.movies(1_000));
+        payloads.put("escapes(50)", awkward(EncodingBenchmark.movies(50)));
+
+        for (String name : names) {
+            Encoder encoder = ENCODERS.get(name);
+            if (encoder == null) {
+                System.err.println("❌ Unknown encoder " + name + "; known: " + ENCODERS.keySet());
+                System.exit(1);
+            }
+            for (Map.Entry<String, List<Movie>> payload : payloads.entrySet()) {
+                List<Movie> movies = payload.getValue();
+                System.out.println("📦 " + name + " " + payload.getKey() + ": " + encoder.encode(movies) + " bytes");
+                bench.run(name + " " + payload.getKey(), i -> encoder.encode(movies));
+            }
+        }
+        System.exit(bench.report());
+    }
+
+    // Titles and overviews full of quotes, backslashes, control characters and
+    // multi-byte UTF-8, which the escapers handle on a slower path
+    private static List<Movie> awkward(List<Movie> movies) {
+        for (int i = 0; i < movies.size(); i++) {
+            Movie movie = movies.get(i);
+            String text = AWKWARD_TEXT[i % AWKWARD_TEXT.length];
+            movie.setTitle(text);
+            movie.setOverview(text + " " + movie.getOverview() + " " + AWKWARD_TEXT[(i + 3) % AWKWARD_TEXT.length]);
+            movie.setDescription(movie.getOverview());
+        }
+        return movies;
+    }
+}
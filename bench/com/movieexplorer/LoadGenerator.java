@@ -0,0 +1,470 @@
+package com.movieexplorer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Open-loop HTTP load generator for Main (:8080) and BackendServer (:8081).
+//
+// Requests are started on a fixed schedule (--rate per second), whether or not
+// earlier ones have come back, and each latency is measured from the time the
+// request was *due*, not from when it was actually sent. So a server that stalls
+// shows up as the whole queue of requests that piled up behind it, instead of as
+// the one slow request a closed-loop client would see (coordinated omission).
+//
+//   ./bench.sh LoadGenerator [--start main,backend] [--mix browse] [--rate 200]
+//                            [--duration 30] [--warmup 5] [--save] [--compare]
+//
+//   --start main,backend   start the servers in this JVM (BackendServer needs its MySQL)
+//   --main URL             default http://localhost:8080
+//   --backend URL          default http://localhost:8081
+//   --mix NAME|SPEC        browse, accounts or full, or weights like keystrokes=3,search=1
+//   --rate N               arrivals per second (a keystroke burst is one arrival)
+//   --duration S           measured seconds, after --warmup S unmeasured ones
+//   --users N              accounts registered for login and favorites, default 50
+//   --save                 write the report to bench/baselines/load-<mix>-<rate>.tsv
+//   --compare              print deltas against that file
+//
+// Scenarios:
+//   keystrokes  someone typing a title: /api/suggestions for each prefix, 120ms apart,
+//               then /api/search for the whole title
+//   search      /api/search?q= a popular title word
+//   popular     /api/movies/popular, 20 or 50 at a time
+//   login       POST /api/login as one of the load-test users
+//   favorites   POST /api/favorites toggling a random catalog movie, as a logged-in user
+public class LoadGenerator {
+    private static final Path BASELINES = Paths.get("bench", "baselines");
+    private static final long KEYSTROKE_GAP_NANOS = TimeUnit.MILLISECONDS.toNanos(120);
+    private static final int MAX_IN_FLIGHT = 10_000;
+    private static final String PASSWORD = "load-test-password";
+    private static final String[] FALLBACK_TITLES = {"inception", "the dark knight", "interstellar", "parasite",
+            "the godfather", "pulp fiction", "spirited away", "the matrix"};
+
+    private static final Map<String, String> MIXES = Map.of(
+            "browse", "keystrokes=6,search=3,popular=1",
+            "accounts", "login=1,favorites=3",
+            "full", "keystrokes=8,search=5,popular=2,login=1,favorites=4");
+
+    // ========== CONFIGURATION ==========
+    private String mainUrl = "http://localhost:8080";
+    private String backendUrl = "http://localhost:8081";
+    private Set<String> start = Collections.emptySet();
+    private String mixName = "browse";
+    private double rate = 200;
+    private long durationSeconds = 30;
+    private long warmupSeconds = 5;
+    private int users = 50;
+    private boolean save;
+    private boolean compare;
+    // ===================================
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newCachedThreadPool(daemon("load-client")))
+            .build();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(daemon("load-timer"));
+    private final Map<String, Scenario> scenarios = new LinkedHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder stragglers = new LongAdder();
+    // Measured requests not yet answered, so drive() can settle the ones that never are
+    private final Set<Outstanding> outstanding = ConcurrentHashMap.newKeySet();
+    private final Random random = new Random(7);
+
+    private volatile long measureFrom;
+    private volatile long measureUntil;
+    private long maxLagNanos;
+    private List<String> titles = new ArrayList<>();
+    private List<Integer> catalogIds = new ArrayList<>();
+    private final List<String> sessions = new ArrayList<>();
+
+    // One kind of request: its latency histogram and outcome counters
+    private static final class Scenario {
+        final String name;
+        final int weight;
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder ok = new LongAdder();
+        final LongAdder clientErrors = new LongAdder();
+        final LongAdder serverErrors = new LongAdder();
+        final LongAdder failures = new LongAdder();
+
+        Scenario(String name, int weight) {
+            this.name = name;
+            this.weight = weight;
+        }
+
+        long requests() {
+            return ok.sum() + clientErrors.sum() + serverErrors.sum() + failures.sum();
+        }
+
+        long errors() {
+            return serverErrors.sum() + failures.sum();
+        }
+    }
+
+    // A measured request in flight; whoever flips `settled` first records its outcome
+    private static final class Outstanding {
+        final Scenario scenario;
+        final long due;
+        final AtomicBoolean settled = new AtomicBoolean();
+
+        Outstanding(Scenario scenario, long due) {
+            this.scenario = scenario;
+            this.due = due;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadGenerator generator = new LoadGenerator();
+        generator.parse(args);
+        generator.run();
+        System.exit(0);
+    }
+
+    private void parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--main": mainUrl = args[++i]; break;
+                case "--backend": backendUrl = args[++i]; break;
+                case "--start": start = new HashSet<>(Arrays.asList(args[++i].split(","))); break;
+                case "--mix": mixName = args[++i]; break;
+                case "--rate": rate = Double.parseDouble(args[++i]); break;
+                case "--duration": durationSeconds = Long.parseLong(args[++i]); break;
+                case "--warmup": warmupSeconds = Long.parseLong(args[++i]); break;
+                case "--users": users = Integer.parseInt(args[++i]); break;
+                case "--save": save = true; break;
+                case "--compare": compare = true; break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        for (String part : MIXES.getOrDefault(mixName, mixName).split(",")) {
+            String[] kv = part.split("=");
+            String name = kv[0].trim();
+            if (!List.of("keystrokes", "search", "popular", "login", "favorites").contains(name)) {
+                throw new IllegalArgumentException("Unknown scenario " + name + " in mix " + mixName);
+            }
+            scenarios.put(name, new Scenario(name, kv.length > 1 ? Integer.parseInt(kv[1].trim()) : 1));
+        }
+    }
+
+    private void run() throws Exception {
+        PrintStream console = System.out;
+        if (start.contains("main")) Main.main(new String[0]);
+        if (start.contains("backend")) BackendServer.main(new String[0]);
+        // In-process servers log every request; keep the report readable
+        if (!start.isEmpty()) System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        try {
+            prepare(console);
+            console.printf("🚦 mix %s (%s) at %.0f/s for %ds after %ds warmup%n", mixName,
+                    MIXES.getOrDefault(mixName, mixName), rate, durationSeconds, warmupSeconds);
+            drive();
+            report(console);
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    // ========== SETUP ==========
+    // Titles to type, movie ids to favorite, and logged-in sessions
+    private void prepare(PrintStream console) throws Exception {
+        if (scenarios.containsKey("keystrokes") || scenarios.containsKey("search")) {
+            String cursor = "";
+            for (int page = 0; page < 5 && cursor != null; page++) {
+                Map<?, ?> body = getJson(mainUrl + "/api/movies/popular?limit=100&fields=title" + cursor);
+                if (body == null || !(body.get("results") instanceof List)) break;
+                for (Object movie : (List<?>) body.get("results")) titles.add(((Map<?, ?>) movie).get("title").toString());
+                cursor = body.get("next_cursor") == null ? null : "&cursor=" + encode(body.get("next_cursor").toString());
+            }
+            if (titles.isEmpty()) titles = Arrays.asList(FALLBACK_TITLES);
+            console.println("🎬 " + titles.size() + " titles to type from " + mainUrl);
+        }
+
+        if (scenarios.containsKey("favorites")) {
+            Map<?, ?> body = getJson(backendUrl + "/api/movies?limit=100");
+            if (body != null && body.get("movies") instanceof List) {
+                for (Object movie : (List<?>) body.get("movies")) {
+                    catalogIds.add(((Number) ((Map<?, ?>) movie).get("id")).intValue());
+                }
+            }
+            if (catalogIds.isEmpty()) catalogIds = List.of(1, 2, 3, 4, 5);
+        }
+
+        if (scenarios.containsKey("login") || scenarios.containsKey("favorites")) {
+            for (int u = 0; u < users; u++) {
+                String email = "loadtest" + u + "@example.com";
+                post(backendUrl + "/api/register", "{\"name\": \"Load Test " + u + "\", \"email\": \"" + email
+                        + "\", \"password\": \"" + PASSWORD + "\"}", null); // already registered is fine
+                HttpResponse<String> login = post(backendUrl + "/api/login", loginBody(u), null);
+                Object session = login.statusCode() == 200 ? new JsonReader(login.body()).readValue() : null;
+                if (session instanceof Map && ((Map<?, ?>) session).get("session") != null) {
+                    sessions.add(((Map<?, ?>) session).get("session").toString());
+                }
+            }
+            console.println("👤 " + sessions.size() + "/" + users + " load-test users logged in at " + backendUrl);
+            if (sessions.isEmpty() && scenarios.containsKey("favorites")) {
+                throw new IllegalStateException("No sessions for the favorites scenario; is " + backendUrl + " up?");
+            }
+        }
+    }
+
+    private Map<?, ?> getJson(String url) {
+        try {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(url))
+                    .timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) return null;
+            Object body = new JsonReader(response.body()).readValue();
+            return body instanceof Map ? (Map<?, ?>) body : null;
+        } catch (IOException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private HttpResponse<String> post(String url, String json, String session) throws IOException, InterruptedException {
+        return client.send(postRequest(url, json, session), HttpResponse.BodyHandlers.ofString());
+    }
+    // ===========================
+
+    // ========== DRIVING ==========
+    // Arrival n is due at start + n / rate; the loop sleeps until then and fires
+    // without waiting for anything that is still in flight
+    private void drive() throws InterruptedException {
+        Scenario[] wheel = weightedWheel();
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long begin = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        measureFrom = begin + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        measureUntil = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        for (long n = 0; ; n++) {
+            long due = begin + n * interval;
+            if (due >= measureUntil) break;
+            long wait = due - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(wait);
+            else maxLagNanos = Math.max(maxLagNanos, -wait);
+            arrive(wheel[random.nextInt(wheel.length)], due);
+        }
+
+        // Let the last requests finish; anything still out after that is counted as
+        // failed, with its latency so far (from its due time) as a lower bound
+        long drainUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (inFlight.get() > 0 && System.nanoTime() < drainUntil) Thread.sleep(10);
+        for (Outstanding request : outstanding) {
+            if (!request.settled.compareAndSet(false, true)) continue;
+            request.scenario.latency.recordNanosSince(request.due);
+            request.scenario.failures.increment();
+            stragglers.increment();
+        }
+        outstanding.clear();
+    }
+
+    private Scenario[] weightedWheel() {
+        List<Scenario> wheel = new ArrayList<>();
+        for (Scenario s : scenarios.values()) for (int i = 0; i < s.weight; i++) wheel.add(s);
+        return wheel.toArray(new Scenario[0]);
+    }
+
+    private void arrive(Scenario scenario, long due) {
+        switch (scenario.name) {
+            case "keystrokes": {
+                String title = titles.get(random.nextInt(titles.size())).toLowerCase();
+                int typed = Math.min(title.length(), 2 + random.nextInt(8));
+                for (int k = 2; k <= typed; k++) {
+                    long keyDue = due + (k - 2) * KEYSTROKE_GAP_NANOS;
+                    String prefix = title.substring(0, k);
+                    schedule(scenario, keyDue, () -> get(mainUrl + "/api/suggestions?q=" + encode(prefix)));
+                }
+                String query = title.substring(0, typed);
+                schedule(scenario, due + (typed - 1) * KEYSTROKE_GAP_NANOS,
+                        () -> get(mainUrl + "/api/search?q=" + encode(query)));
+                break;
+            }
+            case "search": {
+                String[] words = titles.get(random.nextInt(titles.size())).toLowerCase().split(" ");
+                String word = words[random.nextInt(words.length)];
+                send(scenario, due, get(mainUrl + "/api/search?q=" + encode(word)));
+                break;
+            }
+            case "popular":
+                send(scenario, due, get(mainUrl + "/api/movies/popular?limit=" + (random.nextInt(4) == 0 ? 50 : 20)));
+                break;
+            case "login":
+                send(scenario, due, postRequest(backendUrl + "/api/login", loginBody(random.nextInt(users)), null));
+                break;
+            case "favorites": {
+                String session = sessions.get(random.nextInt(sessions.size()));
+                int movieId = catalogIds.get(random.nextInt(catalogIds.size()));
+                send(scenario, due, postRequest(backendUrl + "/api/favorites", "{\"movieId\": " + movieId + "}", session));
+                break;
+            }
+            default:
+                throw new IllegalStateException(scenario.name);
+        }
+    }
+
+    // Later keystrokes of a burst are due in the future; they keep their own due time
+    private void schedule(Scenario scenario, long due, java.util.function.Supplier<HttpRequest> request) {
+        long delay = due - System.nanoTime();
+        if (delay <= 0) {
+            send(scenario, due, request.get());
+        } else {
+            timer.schedule(() -> send(scenario, due, request.get()), delay, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void send(Scenario scenario, long due, HttpRequest request) {
+        boolean measured = due >= measureFrom && due < measureUntil;
+        if (inFlight.incrementAndGet() > MAX_IN_FLIGHT) {
+            // The server is hopelessly behind; stop piling on but keep the evidence
+            inFlight.decrementAndGet();
+            if (measured) {
+                dropped.increment();
+                scenario.failures.increment();
+            }
+            return;
+        }
+        Outstanding pending = measured ? new Outstanding(scenario, due) : null;
+        if (pending != null) outstanding.add(pending);
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            inFlight.decrementAndGet();
+            if (pending == null || !pending.settled.compareAndSet(false, true)) return;
+            outstanding.remove(pending);
+            scenario.latency.recordNanosSince(due);
+            if (error != null) {
+                scenario.failures.increment();
+            } else if (response.statusCode() >= 500) {
+                scenario.serverErrors.increment();
+            } else if (response.statusCode() >= 400) {
+                scenario.clientErrors.increment();
+            } else {
+                scenario.ok.increment();
+            }
+        });
+    }
+
+    private HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(10)).build();
+    }
+
+    private static HttpRequest postRequest(String url, String json, String session) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (session != null) builder.header("Authorization", "Bearer " + session);
+        return builder.build();
+    }
+
+    private static String loginBody(int user) {
+        return "{\"email\": \"loadtest" + user + "@example.com\", \"password\": \"" + PASSWORD + "\"}";
+    }
+
+    private static String encode(String text) {
+        return URLEncoder.encode(text, StandardCharsets.UTF_8);
+    }
+    // =============================
+
+    // ========== REPORTING ==========
+    private void report(PrintStream out) throws IOException {
+        LatencyHistogram all = new LatencyHistogram();
+        List<String[]> rows = new ArrayList<>();
+        for (Scenario s : scenarios.values()) {
+            all.add(s.latency);
+            rows.add(row(s.name, s.latency, s.requests(), s.errors(), s.clientErrors.sum()));
+        }
+        long requests = 0, errors = 0, clientErrors = 0;
+        for (Scenario s : scenarios.values()) {
+            requests += s.requests();
+            errors += s.errors();
+            clientErrors += s.clientErrors.sum();
+        }
+        rows.add(row("all", all, requests, errors, clientErrors));
+
+        Path file = BASELINES.resolve("load-" + mixName.replaceAll("[^A-Za-z0-9]+", "_") + "-" + (long) rate + ".tsv");
+        Map<String, String[]> baseline = compare ? load(file) : Collections.emptyMap();
+
+        out.printf("%n%-12s %9s %9s %7s %7s %10s %10s %10s %10s   %s%n",
+                "scenario", "requests", "req/s", "5xx/err", "4xx", "p50 ms", "p99 ms", "p99.9 ms", "max ms",
+                baseline.isEmpty() ? "" : "vs " + file);
+        for (String[] r : rows) {
+            String[] base = baseline.get(r[0]);
+            String delta = base == null ? "" : String.format("p99 %+.0f%%, p99.9 %+.0f%%, req/s %+.0f%%",
+                    change(r[6], base[6]), change(r[7], base[7]), change(r[2], base[2]));
+            out.printf("%-12s %9s %9s %7s %7s %10s %10s %10s %10s   %s%n",
+                    r[0], r[1], r[2], r[3], r[4], r[5], r[6], r[7], r[8], delta);
+        }
+        if (dropped.sum() > 0) out.println("⚠️ " + dropped.sum() + " requests dropped with " + MAX_IN_FLIGHT + " in flight");
+        if (stragglers.sum() > 0) out.println("⚠️ " + stragglers.sum() + " requests still unanswered after the drain, counted as failed");
+        // Latencies are still measured from the due time, but the offered rate was lower than asked for
+        if (maxLagNanos > TimeUnit.MILLISECONDS.toNanos(50)) {
+            out.println("⚠️ generator fell up to " + millis(maxLagNanos) + " ms behind its schedule");
+        }
+
+        if (save) {
+            StringBuilder tsv = new StringBuilder("# LoadGenerator mix=" + MIXES.getOrDefault(mixName, mixName)
+                    + " rate=" + rate + " duration=" + durationSeconds + "s java " + System.getProperty("java.version")
+                    + ", " + Runtime.getRuntime().availableProcessors() + " cpus\n");
+            tsv.append("# scenario\trequests\treq/s\t5xx+failed\t4xx\tp50 ms\tp99 ms\tp99.9 ms\tmax ms\n");
+            for (String[] r : rows) tsv.append(String.join("\t", r)).append('\n');
+            Files.createDirectories(BASELINES);
+            Files.write(file, tsv.toString().getBytes(StandardCharsets.UTF_8));
+            out.println("💾 Report saved to " + file);
+        }
+    }
+
+    private String[] row(String name, LatencyHistogram latency, long requests, long errors, long clientErrors) {
+        return new String[]{name, Long.toString(requests),
+                String.format(Locale.ROOT, "%.1f", requests / (double) durationSeconds),
+                Long.toString(errors), Long.toString(clientErrors),
+                millis(latency.percentile(50)), millis(latency.percentile(99)),
+                millis(latency.percentile(99.9)), millis(latency.max())};
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.2f", LatencyHistogram.toMillis(nanos));
+    }
+
+    private static double change(String now, String before) {
+        double base = Double.parseDouble(before);
+        return base == 0 ? 0 : (Double.parseDouble(now) / base - 1) * 100;
+    }
+
+    private static Map<String, String[]> load(Path file) throws IOException {
+        Map<String, String[]> rows = new HashMap<>();
+        if (!Files.exists(file)) return rows;
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] cols = line.split("\t");
+            rows.put(cols[0], cols);
+        }
+        return rows;
+    }
+    // ===============================
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
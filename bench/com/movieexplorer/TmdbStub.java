@@ -0,0 +1,315 @@
+package com.movieexplorer;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Local stand-in for api.themoviedb.org serving canned, deterministic TMDb JSON, so
+// the loader and client code can be exercised without a key or network access.
+//
+//   ./bench.sh TmdbStub [port] [movies] [latencyMs] [changesPerMinute]
+//   TMDB_BASE_URL=http://localhost:9090/3 TMDB_API_KEY=stub java -cp target/bench com.movieexplorer.Main
+//
+// Endpoints: /3/movie/popular?page=N, /3/search/movie?query=q, /3/movie/{id},
+// /3/movie/changes?start_date=YYYY-MM-DD&page=N. updateMovie/deleteMovie (or the
+// changesPerMinute churn) edit the catalog and show up in the changes feed.
+// Images: /t/p/{size}/{file} returns filler JPEG bytes (404 for names containing
+// "missing"); use IMAGE_ORIGIN_URL=http://localhost:9090/t/p.
+public class TmdbStub {
+    private static final int PAGE_SIZE = 20;
+    private static final int CHANGES_PAGE_SIZE = 100;
+    private static final String[] ADJECTIVES = {"Dark", "Silent", "Last", "Hidden", "Broken", "Golden",
+            "Lost", "Crimson", "Frozen", "Electric", "Midnight", "Wild", "Secret", "Final", "Distant"};
+    private static final String[] NOUNS = {"Knight", "Horizon", "Empire", "River", "Signal", "Garden",
+            "Machine", "Kingdom", "Voyage", "Shadow", "Protocol", "Harbor", "Storm", "Legacy", "Orbit"};
+    private static final int[] GENRE_IDS = {28, 12, 16, 35, 80, 99, 18, 10751, 14, 36, 27, 10402, 9648,
+            10749, 878, 10770, 53, 10752, 37};
+
+    private final HttpServer server;
+    private final int movieCount;
+    private volatile long latencyMs;
+    private volatile int rateLimitPerSecond; // 0 = unlimited
+    private long rateWindowStart;
+    private int rateWindowCount;
+    private final java.util.concurrent.atomic.AtomicLong requests = new java.util.concurrent.atomic.AtomicLong();
+    private final Map<Integer, String> titleOverrides = new ConcurrentHashMap<>();
+    private final Map<Integer, Double> voteOverrides = new ConcurrentHashMap<>();
+    private final Set<Integer> deleted = ConcurrentHashMap.newKeySet();
+    private final Map<Integer, LocalDate> changedOn = new ConcurrentHashMap<>();
+
+    public TmdbStub(int port, int movieCount) throws IOException {
+        this.movieCount = movieCount;
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/3/movie/popular", this::handlePopular);
+        server.createContext("/3/search/movie", this::handleSearch);
+        server.createContext("/3/movie/changes", this::handleChanges);
+        server.createContext("/3/movie/", this::handleDetail);
+        server.createContext("/t/p/", this::handleImage);
+        server.setExecutor(Executors.newCachedThreadPool());
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 9090;
+        int movies = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        TmdbStub stub = new TmdbStub(port, movies);
+        if (args.length > 2) stub.setLatencyMs(Long.parseLong(args[2]));
+        if (args.length > 3) stub.startChurn(Integer.parseInt(args[3]));
+        stub.start();
+        System.out.println("🧪 TMDb stub with " + movies + " movies on http://localhost:" + port + "/3");
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    // Added to every response, to simulate a slow upstream
+    public void setLatencyMs(long latencyMs) {
+        this.latencyMs = latencyMs;
+    }
+
+    // Beyond this many API requests per second, answer 429 with Retry-After: 1 like TMDb
+    public void setRateLimit(int perSecond) {
+        this.rateLimitPerSecond = perSecond;
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    // ========== MUTATIONS ==========
+    public void updateMovie(int index, String title, double voteAverage) {
+        if (title != null) titleOverrides.put(index, title);
+        voteOverrides.put(index, voteAverage);
+        changedOn.put(index, LocalDate.now(ZoneOffset.UTC));
+    }
+
+    public void deleteMovie(int index) {
+        deleted.add(index);
+        changedOn.put(index, LocalDate.now(ZoneOffset.UTC));
+    }
+
+    // Re-rates random movies in the background, for watching the sync run
+    public void startChurn(int changesPerMinute) {
+        if (changesPerMinute <= 0) return;
+        ScheduledExecutorService churn = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "tmdb-stub-churn");
+            t.setDaemon(true);
+            return t;
+        });
+        churn.scheduleAtFixedRate(() -> {
+            int index = ThreadLocalRandom.current().nextInt(movieCount);
+            updateMovie(index, null, Math.round(ThreadLocalRandom.current().nextDouble(1, 10) * 10) / 10.0);
+        }, 0, 60_000 / changesPerMinute, TimeUnit.MILLISECONDS);
+    }
+    // ===============================
+
+    // ========== HANDLERS ==========
+    private void handlePopular(HttpExchange exchange) throws IOException {
+        Map<String, String> params = queryParams(exchange);
+        int page = Integer.parseInt(params.getOrDefault("page", "1"));
+        int totalPages = (movieCount + PAGE_SIZE - 1) / PAGE_SIZE;
+
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = (page - 1) * PAGE_SIZE; i < Math.min(page * PAGE_SIZE, movieCount); i++) {
+            if (!deleted.contains(i)) indexes.add(i);
+        }
+        send(exchange, 200, resultsPage(page, indexes, totalPages, movieCount));
+    }
+
+    private void handleSearch(HttpExchange exchange) throws IOException {
+        String query = queryParams(exchange).getOrDefault("query", "").toLowerCase();
+        List<Integer> matches = new ArrayList<>();
+        for (int i = 0; i < movieCount && !query.isEmpty(); i++) {
+            if (!deleted.contains(i) && titleOf(i).toLowerCase().contains(query)) matches.add(i);
+        }
+        List<Integer> firstPage = matches.subList(0, Math.min(PAGE_SIZE, matches.size()));
+        send(exchange, 200, resultsPage(1, firstPage, Math.max(1, (matches.size() + PAGE_SIZE - 1) / PAGE_SIZE),
+                matches.size()));
+    }
+
+    private void handleChanges(HttpExchange exchange) throws IOException {
+        Map<String, String> params = queryParams(exchange);
+        LocalDate since = LocalDate.parse(params.getOrDefault("start_date", LocalDate.now(ZoneOffset.UTC).minusDays(1).toString()));
+        int page = Integer.parseInt(params.getOrDefault("page", "1"));
+
+        List<Integer> changed = new ArrayList<>();
+        changedOn.forEach((index, day) -> {
+            if (!day.isBefore(since)) changed.add(index);
+        });
+        Collections.sort(changed);
+        int totalPages = Math.max(1, (changed.size() + CHANGES_PAGE_SIZE - 1) / CHANGES_PAGE_SIZE);
+
+        StringBuilder json = new StringBuilder("{\"results\":[");
+        int end = Math.min(page * CHANGES_PAGE_SIZE, changed.size());
+        for (int i = (page - 1) * CHANGES_PAGE_SIZE; i < end; i++) {
+            if (i > (page - 1) * CHANGES_PAGE_SIZE) json.append(',');
+            json.append("{\"id\":").append(movieId(changed.get(i))).append(",\"adult\":false}");
+        }
+        json.append("],\"page\":").append(page).append(",\"total_pages\":").append(totalPages)
+                .append(",\"total_results\":").append(changed.size()).append('}');
+        send(exchange, 200, json.toString());
+    }
+
+    private void handleDetail(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        int index = -1;
+        try {
+            index = Integer.parseInt(path.substring(path.lastIndexOf('/') + 1)) - movieId(0);
+        } catch (NumberFormatException e) {
+            // falls through to 404
+        }
+        if (index < 0 || index >= movieCount || deleted.contains(index)) {
+            send(exchange, 404, "{\"success\":false,\"status_code\":34," +
+                    "\"status_message\":\"The resource you requested could not be found.\"}");
+            return;
+        }
+        // Details add what listings lack: runtime and genre objects
+        String listing = movieJson(index, titleOf(index), voteOf(index));
+        StringBuilder genres = new StringBuilder();
+        for (int genreId : new int[]{GENRE_IDS[index % GENRE_IDS.length], GENRE_IDS[(index / 3) % GENRE_IDS.length]}) {
+            if (genres.indexOf("\"id\":" + genreId + ",") >= 0) continue;
+            if (genres.length() > 0) genres.append(',');
+            genres.append("{\"id\":").append(genreId).append(",\"name\":\"")
+                    .append(TmdbCatalogLoader.GENRES.get(genreId)).append("\"}");
+        }
+        send(exchange, 200, listing.substring(0, listing.length() - 1) +
+                ",\"runtime\":" + (85 + index % 70) + ",\"genres\":[" + genres + "]}");
+    }
+
+    // Deterministic filler: JPEG markers around a body sized by the requested width
+    private void handleImage(HttpExchange exchange) throws IOException {
+        String[] parts = exchange.getRequestURI().getPath().split("/"); // "", "t", "p", size, file
+        if (parts.length != 5 || parts[4].contains("missing")) {
+            send(exchange, 404, "application/json", "{\"status_code\":34}".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        int width = parts[3].startsWith("w") ? Integer.parseInt(parts[3].substring(1)) : 2000;
+        byte[] image = new byte[width * 40];
+        Random filler = new Random(parts[4].hashCode());
+        filler.nextBytes(image);
+        image[0] = (byte) 0xFF;
+        image[1] = (byte) 0xD8;
+        image[image.length - 2] = (byte) 0xFF;
+        image[image.length - 1] = (byte) 0xD9;
+        send(exchange, 200, "image/jpeg", image);
+    }
+    // ==============================
+
+    // ========== CANNED DATA ==========
+    static int movieId(int index) {
+        return 100_000 + index;
+    }
+
+    static String title(int index) {
+        String title = "The " + ADJECTIVES[index % ADJECTIVES.length] + " " +
+                NOUNS[(index / ADJECTIVES.length) % NOUNS.length];
+        int series = index / (ADJECTIVES.length * NOUNS.length);
+        return series == 0 ? title : title + " " + (series + 1);
+    }
+
+    private String titleOf(int index) {
+        return titleOverrides.getOrDefault(index, title(index));
+    }
+
+    private double voteOf(int index) {
+        return voteOverrides.getOrDefault(index, voteAverage(index));
+    }
+
+    // Popularity order matches index order, so rating falls slowly with the index
+    static String movieJson(int index, String title, double voteAverage) {
+        int id = movieId(index);
+        int genre = GENRE_IDS[index % GENRE_IDS.length];
+        int secondGenre = GENRE_IDS[(index / 3) % GENRE_IDS.length];
+        return "{\"adult\":false," +
+                "\"backdrop_path\":\"/backdrop" + id + ".jpg\"," +
+                "\"genre_ids\":[" + genre + (secondGenre != genre ? "," + secondGenre : "") + "]," +
+                "\"id\":" + id + "," +
+                "\"original_language\":\"" + (index % 7 == 0 ? "fr" : "en") + "\"," +
+                "\"original_title\":\"" + title + "\"," +
+                "\"overview\":\"Stub overview for movie " + id + ". Line one\\nline \\\"two\\\".\"," +
+                "\"popularity\":" + String.format(Locale.ROOT, "%.3f", 5000.0 / (index + 1)) + "," +
+                "\"poster_path\":" + (index % 50 == 49 ? "null" : "\"/poster" + id + ".jpg\"") + "," +
+                "\"release_date\":\"" + (1970 + index % 55) + "-0" + (1 + index % 9) + "-15\"," +
+                "\"title\":\"" + title + "\"," +
+                "\"video\":false," +
+                "\"vote_average\":" + String.format(Locale.ROOT, "%.1f", voteAverage) + "," +
+                "\"vote_count\":" + (10_000 - index % 10_000) + "}";
+    }
+
+    static double voteAverage(int index) {
+        return Math.max(1.0, 9.0 - (index % 400) / 50.0);
+    }
+
+    private String resultsPage(int page, List<Integer> indexes, int totalPages, int totalResults) {
+        StringBuilder json = new StringBuilder("{\"page\":").append(page).append(",\"results\":[");
+        for (int i = 0; i < indexes.size(); i++) {
+            if (i > 0) json.append(',');
+            int index = indexes.get(i);
+            json.append(movieJson(index, titleOf(index), voteOf(index)));
+        }
+        return json.append("],\"total_pages\":").append(totalPages)
+                .append(",\"total_results\":").append(totalResults).append('}').toString();
+    }
+    // =================================
+
+    private static Map<String, String> queryParams(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) return params;
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(pair.substring(0, eq),
+                        java.net.URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private void send(HttpExchange exchange, int status, String json) throws IOException {
+        if (overRateLimit()) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            status = 429;
+            json = "{\"status_code\":25,\"status_message\":\"Your request count is over the allowed limit.\"}";
+        }
+        send(exchange, status, "application/json;charset=utf-8", json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private synchronized boolean overRateLimit() {
+        if (rateLimitPerSecond <= 0) return false;
+        long now = System.currentTimeMillis();
+        if (now - rateWindowStart >= 1000) {
+            rateWindowStart = now;
+            rateWindowCount = 0;
+        }
+        return ++rateWindowCount > rateLimitPerSecond;
+    }
+
+    private void send(HttpExchange exchange, int status, String contentType, byte[] bytes) throws IOException {
+        requests.incrementAndGet();
+        if (latencyMs > 0) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+}
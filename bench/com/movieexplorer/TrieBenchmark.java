@@ -0,0 +1,62 @@
+package com.movieexplorer;
+
+import java.util.*;
+
+// Trie insert, search, autocomplete, remove and getStats over BenchCorpus catalogues
+// of 10k, 100k and 1M titles.
+//
+//   ./bench.sh TrieBenchmark [sizes] [--save] [--check] [--measure-ms N]
+//   e.g. ./bench.sh TrieBenchmark 10000,100000 --save
+//
+// 1M titles needs a few GB of heap (bench.sh passes -Xmx4g).
+public class TrieBenchmark {
+    private static final int QUERIES = 4_096;
+
+    public static void main(String[] args) throws Exception {
+        List<String> rest = new ArrayList<>(Arrays.asList(args));
+        Bench bench = Bench.fromArgs("TrieBenchmark", rest);
+        String sizes = rest.isEmpty() ? "10000,100000,1000000" : rest.get(0);
+
+        for (String size : sizes.split(",")) {
+            run(bench, Integer.parseInt(size.trim()));
+        }
+        System.exit(bench.report());
+    }
+
+    private static void run(Bench bench, int size) {
+        String n = label(size);
+        BenchCorpus corpus = BenchCorpus.of(size);
+        List<Movie> movies = corpus.movies;
+        System.out.println("📚 " + n + " titles, e.g. \"" + corpus.titles[0] + "\", \"" + corpus.titles[1] + "\"");
+
+        bench.run("insertAll " + n, size, i -> {
+            Trie trie = new Trie();
+            trie.insertAll(movies);
+            return trie.getMovieCount();
+        });
+
+        Trie trie = new Trie();
+        trie.insertAll(movies);
+
+        String[] shortPrefixes = corpus.prefixes(QUERIES, 1, 2, 1);
+        String[] longPrefixes = corpus.prefixes(QUERIES, 6, 12, 2);
+        String[] typedPrefixes = corpus.prefixes(QUERIES, 2, 4, 3);
+
+        bench.run("search short(1-2) " + n, i -> trie.search(shortPrefixes[i % QUERIES], 20).size());
+        bench.run("search long(6-12) " + n, i -> trie.search(longPrefixes[i % QUERIES], 20).size());
+        bench.run("autocomplete(2-4) " + n, i -> trie.autocomplete(typedPrefixes[i % QUERIES], 10).size());
+        bench.run("remove+insert " + n, 2, i -> {
+            Movie movie = movies.get(i % size);
+            boolean removed = trie.remove(movie.getTitle(), movie.getId());
+            trie.insert(movie.getTitle(), movie);
+            return removed ? 1 : 0;
+        });
+        bench.run("getStats " + n, i -> trie.getStats().size());
+    }
+
+    private static String label(int size) {
+        if (size >= 1_000_000 && size % 1_000_000 == 0) return size / 1_000_000 + "M";
+        if (size >= 1_000 && size % 1_000 == 0) return size / 1_000 + "k";
+        return Integer.toString(size);
+    }
+}
@@ -1,24 +1,51 @@
+-- Reference copy of the current schema (V4).
+-- The schema is owned by SchemaMigrator: BackendServer applies pending migrations
+-- at startup and records them in schema_migrations. Edit the migrations, not this file.
 
-
--- Create database
-USE if0_40968954_movie_explorer_db;
-
--- Use database
 USE movie_explorer;
 
--- Drop table if already exists (safe re-run)
-DROP TABLE IF EXISTS users;
+CREATE TABLE schema_migrations (
+    version INT PRIMARY KEY,
+    description VARCHAR(255) NOT NULL,
+    applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
 
--- Users table (matches frontend JS)
+-- V1
 CREATE TABLE users (
     id INT AUTO_INCREMENT PRIMARY KEY,
-
     name VARCHAR(100) NOT NULL,
     email VARCHAR(150) NOT NULL UNIQUE,
-
     password_hash VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    last_login_at TIMESTAMP NULL DEFAULT NULL -- V3
+);
 
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+CREATE TABLE movies (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    title VARCHAR(255) NOT NULL,
+    year INT,
+    genre VARCHAR(255),
+    rating DECIMAL(3,1) DEFAULT 0.0,
+    description TEXT,
+    poster_url VARCHAR(500),
+    duration VARCHAR(50),
+    director VARCHAR(255),
+    cast TEXT,
+    added_by INT,
+    added_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP, -- V4
+    FOREIGN KEY (added_by) REFERENCES users(id) ON DELETE SET NULL
 );
 
+CREATE TABLE favorites (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    user_id INT NOT NULL,
+    movie_id INT NOT NULL,
+    added_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE(user_id, movie_id),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (movie_id) REFERENCES movies(id) ON DELETE CASCADE
+);
 
+-- V2: covering index for favorites paging
+CREATE INDEX idx_favorites_user_added_movie ON favorites (user_id, added_at, id, movie_id);
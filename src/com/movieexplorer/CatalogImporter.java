@@ -0,0 +1,484 @@
+package com.movieexplorer;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Bulk catalog import from a CSV or JSONL dump.
+//
+// Pipeline: one reader thread splits the file into chunks of records, a parser pool
+// turns chunks into Movie objects in parallel, and the chunks are then consumed in
+// file order by a DB writer (batched upserts, committed every txnSize rows) and by an
+// indexer (Trie + id map) running concurrently. After every commit the last imported
+// line is written to a checkpoint file, so an interrupted run resumes from there.
+//
+// Usage: java com.movieexplorer.CatalogImporter <dump.csv|dump.jsonl>
+//            [--batch-size N] [--txn-size N] [--threads N] [--no-db] [--restart]
+public class CatalogImporter {
+    // Rows whose values change get a new movies.updated_at, which is what a running
+    // BackendServer's catalog refresh picks up
+    private static final String UPSERT_SQL =
+            "INSERT INTO movies (id, title, year, genre, rating, description, poster_url, duration, director, cast) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+                    "ON DUPLICATE KEY UPDATE title = VALUES(title), year = VALUES(year), genre = VALUES(genre), " +
+                    "rating = VALUES(rating), description = VALUES(description), poster_url = VALUES(poster_url), " +
+                    "duration = VALUES(duration), director = VALUES(director), cast = VALUES(cast)";
+
+    private static final int MAX_REPORTED_ERRORS = 10;
+
+    private final Path input;
+    private final boolean jsonl;
+    private final int batchSize;
+    private final int txnSize;
+    private final int threads;
+    private final Path checkpointFile;
+
+    // Progress counters, read by the throughput reporter
+    private final AtomicLong parsed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong indexed = new AtomicLong();
+
+    public CatalogImporter(Path input, int batchSize, int txnSize, int threads) {
+        this.input = input;
+        this.jsonl = input.getFileName().toString().toLowerCase().endsWith(".jsonl");
+        this.batchSize = batchSize;
+        this.txnSize = Math.max(txnSize, batchSize);
+        this.threads = threads;
+        this.checkpointFile = input.resolveSibling(input.getFileName() + ".checkpoint");
+    }
+
+    // ========== COMMAND LINE ==========
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.out.println("Usage: java com.movieexplorer.CatalogImporter <dump.csv|dump.jsonl> " +
+                    "[--batch-size N] [--txn-size N] [--threads N] [--no-db] [--restart]");
+            System.exit(1);
+        }
+
+        Path input = Paths.get(args[0]);
+        int batchSize = 1000;
+        int txnSize = 10_000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean useDb = true;
+        boolean restart = false;
+
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--batch-size": batchSize = Integer.parseInt(args[++i]); break;
+                case "--txn-size": txnSize = Integer.parseInt(args[++i]); break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--no-db": useDb = false; break;
+                case "--restart": restart = true; break;
+                default:
+                    System.err.println("❌ Unknown option: " + args[i]);
+                    System.exit(1);
+            }
+        }
+
+        CatalogImporter importer = new CatalogImporter(input, batchSize, txnSize, threads);
+        if (restart) {
+            Files.deleteIfExists(importer.checkpointFile);
+        }
+
+        Trie trie = new Trie();
+        Map<Integer, Movie> byId = new HashMap<>();
+        Consumer<Movie> indexer = movie -> {
+            byId.put(movie.getId(), movie);
+            trie.insert(movie.getTitle(), movie);
+        };
+
+        Connection connection = null;
+        if (useDb) {
+            connection = DBConnection.getConnection();
+            if (connection == null) {
+                System.err.println("❌ Could not connect to the database (use --no-db to only build indexes)");
+                System.exit(1);
+            }
+        }
+
+        try {
+            importer.run(connection, indexer);
+        } finally {
+            if (connection != null) connection.close();
+        }
+        System.out.println("📊 Index: " + byId.size() + " movies, trie stats " + trie.getStats());
+    }
+    // ==================================
+
+    // ========== PIPELINE ==========
+    // Imports everything after the checkpoint. connection may be null to only build
+    // indexes (no checkpointing then); indexer is always called from a single thread,
+    // in file order.
+    public void run(Connection connection, Consumer<Movie> indexer) throws Exception {
+        long resumeAfterLine = connection != null ? readCheckpoint() : 0;
+        if (resumeAfterLine > 0) {
+            System.out.println("⏩ Resuming " + input + " after line " + resumeAfterLine);
+        }
+        System.out.println("📥 Importing " + input + " (" + (jsonl ? "JSONL" : "CSV") + ", " + threads +
+                " parser threads, batch " + batchSize + ", txn " + txnSize + ")");
+
+        ExecutorService parsers = Executors.newFixedThreadPool(threads, daemon("import-parser"));
+        // Bounded so a slow DB applies backpressure to the reader instead of buffering the file
+        BlockingQueue<Future<Chunk>> parsedChunks = new ArrayBlockingQueue<>(threads * 2);
+        BlockingQueue<Chunk> indexQueue = new ArrayBlockingQueue<>(threads * 2);
+
+        long startNanos = System.nanoTime();
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(daemon("import-progress"));
+        reporter.scheduleAtFixedRate(() -> report(startNanos, false), 5, 5, TimeUnit.SECONDS);
+
+        Thread indexThread = new Thread(() -> {
+            try {
+                while (true) {
+                    Chunk chunk = indexQueue.take();
+                    if (chunk == Chunk.END) break;
+                    for (Movie movie : chunk.movies) {
+                        indexer.accept(movie);
+                    }
+                    indexed.addAndGet(chunk.movies.size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "import-indexer");
+        indexThread.start();
+
+        ExecutorService readerThread = Executors.newSingleThreadExecutor(daemon("import-reader"));
+        Future<?> readerDone = readerThread.submit(() -> {
+            readChunks(resumeAfterLine, parsers, parsedChunks);
+            return null;
+        });
+
+        try {
+            writeChunks(connection, parsedChunks, indexQueue);
+            readerDone.get();
+        } finally {
+            indexQueue.put(Chunk.END);
+            indexThread.join();
+            readerThread.shutdownNow();
+            parsers.shutdownNow();
+            reporter.shutdownNow();
+        }
+
+        report(startNanos, true);
+        if (connection != null) {
+            Files.deleteIfExists(checkpointFile);
+        }
+    }
+
+    // Splits the file into record chunks and hands each to the parser pool
+    private void readChunks(long resumeAfterLine, ExecutorService parsers,
+                            BlockingQueue<Future<Chunk>> parsedChunks) throws Exception {
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+            List<String> header = jsonl ? null : parseCsvLine(readCsvRecord(reader, new long[1]));
+            long[] lineNo = {jsonl ? 0 : 1};
+
+            List<String> records = new ArrayList<>(batchSize);
+            String record;
+            while ((record = jsonl ? readLine(reader, lineNo) : readCsvRecord(reader, lineNo)) != null) {
+                if (lineNo[0] <= resumeAfterLine || record.isBlank()) continue;
+                records.add(record);
+                if (records.size() == batchSize) {
+                    submit(parsers, parsedChunks, records, header, lineNo[0]);
+                    records = new ArrayList<>(batchSize);
+                }
+            }
+            if (!records.isEmpty()) {
+                submit(parsers, parsedChunks, records, header, lineNo[0]);
+            }
+        } finally {
+            parsedChunks.put(CompletableFuture.completedFuture(Chunk.END));
+        }
+    }
+
+    private void submit(ExecutorService parsers, BlockingQueue<Future<Chunk>> parsedChunks,
+                        List<String> records, List<String> header, long lastLine) throws InterruptedException {
+        parsedChunks.put(parsers.submit(() -> parseChunk(records, header, lastLine)));
+    }
+
+    // Consumes parsed chunks in file order: index, batch-insert, commit, checkpoint
+    private void writeChunks(Connection connection, BlockingQueue<Future<Chunk>> parsedChunks,
+                             BlockingQueue<Chunk> indexQueue) throws Exception {
+        PreparedStatement upsert = null;
+        if (connection != null) {
+            connection.setAutoCommit(false);
+            upsert = connection.prepareStatement(UPSERT_SQL);
+        }
+
+        try {
+            int uncommitted = 0;
+            long lastLine = 0;
+            while (true) {
+                Chunk chunk = parsedChunks.take().get();
+                if (chunk == Chunk.END) break;
+
+                indexQueue.put(chunk);
+                lastLine = chunk.lastLine;
+
+                if (upsert == null) {
+                    written.addAndGet(chunk.movies.size());
+                    continue;
+                }
+                for (Movie movie : chunk.movies) {
+                    bindRow(upsert, movie);
+                    upsert.addBatch();
+                }
+                upsert.executeBatch();
+                uncommitted += chunk.movies.size();
+
+                if (uncommitted >= txnSize) {
+                    connection.commit();
+                    written.addAndGet(uncommitted);
+                    uncommitted = 0;
+                    writeCheckpoint(lastLine);
+                }
+            }
+
+            if (upsert != null && uncommitted > 0) {
+                connection.commit();
+                written.addAndGet(uncommitted);
+                writeCheckpoint(lastLine);
+            }
+        } catch (Exception e) {
+            if (connection != null) connection.rollback();
+            throw e;
+        } finally {
+            if (upsert != null) {
+                upsert.close();
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    private void report(long startNanos, boolean done) {
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        System.out.println(String.format("%s parsed %,d (%,d rejected) · written %,d · indexed %,d · %,.0f rows/s",
+                done ? "✅ Import finished:" : "⏱️ Import progress:",
+                parsed.get(), rejected.get(), written.get(), indexed.get(),
+                written.get() / Math.max(seconds, 0.001)));
+    }
+    // ==============================
+
+    // ========== PARSING ==========
+    private Chunk parseChunk(List<String> records, List<String> header, long lastLine) {
+        List<Movie> movies = new ArrayList<>(records.size());
+        for (String record : records) {
+            try {
+                Movie movie = jsonl ? parseJsonRecord(record) : parseCsvRecord(header, record);
+                if (movie.getId() <= 0 || movie.getTitle() == null || movie.getTitle().isBlank()) {
+                    throw new IllegalArgumentException("record needs a positive id and a title");
+                }
+                movies.add(movie);
+            } catch (Exception e) {
+                if (rejected.incrementAndGet() <= MAX_REPORTED_ERRORS) {
+                    System.err.println("⚠️ Skipping record before line " + lastLine + ": " + e.getMessage());
+                }
+            }
+        }
+        parsed.addAndGet(movies.size());
+        return new Chunk(movies, lastLine);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Movie parseJsonRecord(String line) throws IOException {
+        Map<String, Object> data = (Map<String, Object>) new JsonReader(line).readValue();
+
+        // TMDb-shaped records go through the existing mapper
+        if (data.containsKey("vote_average") || data.containsKey("release_date")) {
+            Movie movie = Movie.fromTMDbData(data);
+            movie.getAdditionalInfo().remove("tmdb_data"); // don't pin the raw record at catalog scale
+            return movie;
+        }
+
+        Map<String, String> fields = new HashMap<>();
+        for (Map.Entry<String, Object> entry : data.entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof List) {
+                fields.put(entry.getKey(), String.join(", ", ((List<Object>) value).stream()
+                        .map(String::valueOf).toArray(String[]::new)));
+            } else if (value != null) {
+                fields.put(entry.getKey(), String.valueOf(value));
+            }
+        }
+        return toMovie(fields);
+    }
+
+    private static Movie parseCsvRecord(List<String> header, String record) {
+        List<String> values = parseCsvLine(record);
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < Math.min(header.size(), values.size()); i++) {
+            fields.put(header.get(i).trim().toLowerCase(), values.get(i));
+        }
+        return toMovie(fields);
+    }
+
+    // Accepts both the movies-table column names and the Movie field names
+    private static Movie toMovie(Map<String, String> fields) {
+        int id = (int) parseNumber(fields.get("id"));
+        String title = fields.get("title");
+        int year = (int) parseNumber(fields.get("year"));
+        double rating = parseNumber(fields.get("rating"));
+        String poster = firstNonEmpty(fields.get("poster_url"), fields.get("poster"));
+        String description = firstNonEmpty(fields.get("description"), fields.get("overview"));
+
+        List<String> genres = new ArrayList<>();
+        String genreList = firstNonEmpty(fields.get("genre"), fields.get("genres"));
+        if (genreList != null) {
+            for (String genre : genreList.split(",")) {
+                if (!genre.isBlank()) genres.add(genre.trim());
+            }
+        }
+
+        // duration is stored as "148 min" in the movies table
+        String runtimeText = firstNonEmpty(fields.get("runtime"), fields.get("duration"));
+        int runtime = runtimeText == null ? 0 : (int) parseNumber(runtimeText.replaceAll("[^0-9.]", ""));
+
+        Movie movie = new Movie(id, title, year, rating, poster, null, genres, description,
+                fields.getOrDefault("language", "en"), runtime);
+        if (fields.get("director") != null) movie.getAdditionalInfo().put("director", fields.get("director"));
+        if (fields.get("cast") != null) movie.getAdditionalInfo().put("cast", fields.get("cast"));
+        return movie;
+    }
+
+    private static void bindRow(PreparedStatement stmt, Movie movie) throws SQLException {
+        stmt.setInt(1, movie.getId());
+        stmt.setString(2, movie.getTitle());
+        stmt.setInt(3, movie.getYear());
+        stmt.setString(4, movie.getGenresString());
+        // rating is DECIMAL(3,1)
+        stmt.setBigDecimal(5, BigDecimal.valueOf(Math.min(Math.max(movie.getRating(), 0), 99.9))
+                .setScale(1, RoundingMode.HALF_UP));
+        stmt.setString(6, movie.getOverview());
+        stmt.setString(7, movie.getPoster());
+        stmt.setString(8, movie.getRuntime() > 0 ? movie.getRuntime() + " min" : null);
+        stmt.setString(9, (String) movie.getAdditionalInfo().get("director"));
+        stmt.setString(10, (String) movie.getAdditionalInfo().get("cast"));
+    }
+
+    private static double parseNumber(String text) {
+        if (text == null || text.isBlank()) return 0;
+        try {
+            return Double.parseDouble(text.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static String firstNonEmpty(String a, String b) {
+        return a != null && !a.isEmpty() ? a : (b != null && !b.isEmpty() ? b : null);
+    }
+    // =============================
+
+    // ========== RECORD READING ==========
+    private static String readLine(BufferedReader reader, long[] lineNo) throws IOException {
+        String line = reader.readLine();
+        if (line != null) lineNo[0]++;
+        return line;
+    }
+
+    // A CSV record can span lines when a quoted field contains a newline
+    private static String readCsvRecord(BufferedReader reader, long[] lineNo) throws IOException {
+        String line = readLine(reader, lineNo);
+        if (line == null) return null;
+
+        StringBuilder record = new StringBuilder(line);
+        while (countQuotes(record) % 2 != 0) {
+            String next = readLine(reader, lineNo);
+            if (next == null) break;
+            record.append('\n').append(next);
+        }
+        return record.toString();
+    }
+
+    private static int countQuotes(CharSequence text) {
+        int count = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '"') count++;
+        }
+        return count;
+    }
+
+    // RFC 4180: fields may be quoted, "" inside quotes is a literal quote
+    static List<String> parseCsvLine(String record) {
+        List<String> fields = new ArrayList<>();
+        if (record == null) return fields;
+
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+    // ====================================
+
+    // ========== CHECKPOINT ==========
+    private long readCheckpoint() throws IOException {
+        if (!Files.exists(checkpointFile)) return 0;
+        Properties props = new Properties();
+        try (Reader reader = Files.newBufferedReader(checkpointFile)) {
+            props.load(reader);
+        }
+        return Long.parseLong(props.getProperty("line", "0"));
+    }
+
+    // Written to a temp file and renamed, so a crash never leaves a torn checkpoint
+    private void writeCheckpoint(long line) throws IOException {
+        Properties props = new Properties();
+        props.setProperty("line", String.valueOf(line));
+        props.setProperty("written", String.valueOf(written.get()));
+        Path tmp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(tmp)) {
+            props.store(writer, "CatalogImporter checkpoint for " + input.getFileName());
+        }
+        Files.move(tmp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    // ================================
+
+    private static ThreadFactory daemon(String name) {
+        return r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    private static final class Chunk {
+        static final Chunk END = new Chunk(Collections.emptyList(), -1);
+
+        final List<Movie> movies;
+        final long lastLine;
+
+        Chunk(List<Movie> movies, long lastLine) {
+            this.movies = movies;
+            this.lastLine = lastLine;
+        }
+    }
+}
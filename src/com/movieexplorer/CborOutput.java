@@ -0,0 +1,396 @@
+package com.movieexplorer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+// CBOR (RFC 8949) written into a growable byte buffer, the binary counterpart of
+// JsonOutput. Heads use the shortest form. Doubles use the smallest float width that
+// holds them exactly. Everything written after stringRefs() sits in a stringref
+// namespace (tag 256): each text string long enough to be worth it is added to a
+// per-response table the first time it appears, and later repeats are written as a
+// tag 25 index into it. That covers map keys, genres and languages, which repeat in
+// every movie. Decoders that know stringref (cbor.schmorp.de/stringref) rebuild the
+// strings; the table never leaves the response.
+final class CborOutput {
+    private static final int INITIAL_CAPACITY = 8 * 1024;
+    private static final int MAX_RETAINED_CAPACITY = 1024 * 1024;
+    private static final int MAX_RETAINED_REFS = 4096;
+
+    private static final int UNSIGNED = 0;
+    private static final int NEGATIVE = 1 << 5;
+    private static final int TEXT = 3 << 5;
+    private static final int ARRAY = 4 << 5;
+    private static final int MAP = 5 << 5;
+    private static final int TAG = 6 << 5;
+    private static final int SIMPLE = 7 << 5;
+
+    private static final int TAG_STRINGREF = 25;
+    private static final int TAG_STRINGREF_NAMESPACE = 256;
+    private static final int MIN_REF_LENGTH = 3; // shorter strings never enter the table
+
+    private static final ThreadLocal<CborOutput> PER_THREAD = ThreadLocal.withInitial(CborOutput::new);
+
+    private byte[] buf;
+    private int size;
+    private int movieFields = MovieJsonWriter.ALL; // projection for Movies written via writeValue
+    private final RefTable refTable = new RefTable();
+    private RefTable refs; // refTable inside a stringref namespace, else null
+
+    CborOutput() {
+        this(INITIAL_CAPACITY);
+    }
+
+    CborOutput(int capacity) {
+        buf = new byte[Math.max(16, capacity)];
+    }
+
+    // This thread's buffer, emptied; see JsonOutput.reuse()
+    static CborOutput reuse() {
+        CborOutput out = PER_THREAD.get();
+        if (out.buf.length > MAX_RETAINED_CAPACITY || out.refTable.count > MAX_RETAINED_REFS) {
+            out = new CborOutput();
+            PER_THREAD.set(out);
+        }
+        out.size = 0;
+        out.movieFields = MovieJsonWriter.ALL;
+        out.refTable.clear();
+        out.refs = null;
+        return out;
+    }
+
+    // Movies written from here on carry only these MovieJsonWriter fields
+    CborOutput projectMovies(int fields) {
+        movieFields = fields;
+        return this;
+    }
+
+    // Opens a stringref namespace around the next value (call once, before it)
+    CborOutput stringRefs() {
+        writeHead(TAG, TAG_STRINGREF_NAMESPACE);
+        refs = refTable;
+        return this;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void writeTo(OutputStream os) throws IOException {
+        os.write(buf, 0, size);
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buf, size);
+    }
+
+    // ========== SCALARS ==========
+    CborOutput writeInt(long value) {
+        if (value >= 0) writeHead(UNSIGNED, value);
+        else writeHead(NEGATIVE, -1 - value);
+        return this;
+    }
+
+    // Half, single or double precision, whichever is the smallest exact fit
+    CborOutput writeDouble(double value) {
+        float f = (float) value;
+        if (f == value || Double.isNaN(value)) {
+            int half = exactHalf(f);
+            if (half >= 0) {
+                ensure(3);
+                buf[size++] = (byte) (SIMPLE | 25);
+                buf[size++] = (byte) (half >> 8);
+                buf[size++] = (byte) half;
+                return this;
+            }
+            ensure(5);
+            buf[size++] = (byte) (SIMPLE | 26);
+            writeBigEndian(Float.floatToIntBits(f), 4);
+            return this;
+        }
+        ensure(9);
+        buf[size++] = (byte) (SIMPLE | 27);
+        writeBigEndian(Double.doubleToLongBits(value), 8);
+        return this;
+    }
+
+    // IEEE half-precision bits of f, or -1 if a half can't hold it exactly
+    private static int exactHalf(float f) {
+        int bits = Float.floatToIntBits(f);
+        int sign = bits >>> 16 & 0x8000;
+        int exponent = (bits >>> 23 & 0xFF) - 127;
+        int mantissa = bits & 0x7FFFFF;
+        if (Float.isNaN(f)) return 0x7E00;
+        if (Float.isInfinite(f)) return sign | 0x7C00;
+        if (f == 0) return sign;
+        if (exponent >= -14 && exponent <= 15) { // normal half
+            return (mantissa & 0x1FFF) == 0 ? sign | (exponent + 15) << 10 | mantissa >> 13 : -1;
+        }
+        if (exponent >= -24 && exponent < -14) { // subnormal half
+            int significand = 0x800000 | mantissa;
+            int shift = 13 + (-14 - exponent);
+            return (significand & ((1 << shift) - 1)) == 0 ? sign | significand >> shift : -1;
+        }
+        return -1;
+    }
+
+    CborOutput writeBoolean(boolean value) {
+        ensure(1);
+        buf[size++] = (byte) (SIMPLE | (value ? 21 : 20));
+        return this;
+    }
+
+    CborOutput writeNull() {
+        ensure(1);
+        buf[size++] = (byte) (SIMPLE | 22);
+        return this;
+    }
+
+    CborOutput writeTag(long tag) {
+        writeHead(TAG, tag);
+        return this;
+    }
+
+    CborOutput beginArray(int length) {
+        writeHead(ARRAY, length);
+        return this;
+    }
+
+    CborOutput beginMap(int length) {
+        writeHead(MAP, length);
+        return this;
+    }
+    // =============================
+
+    // ========== STRINGS ==========
+    // UTF-8 text, or a reference to an earlier copy inside a stringref namespace.
+    // Lone surrogates become '?', as in JsonOutput.
+    CborOutput writeString(String value) {
+        if (value == null) return writeNull();
+        return writeString(value, 0, value.length());
+    }
+
+    // value.substring(start, end) as one string, without making the substring
+    CborOutput writeString(String value, int start, int end) {
+        int length = utf8Length(value, start, end);
+        if (refs != null && length >= MIN_REF_LENGTH) {
+            int hash = start == 0 && end == value.length() ? value.hashCode() : hash(value, start, end);
+            int index = refs.find(value, start, end, hash);
+            if (index >= 0) {
+                writeHead(TAG, TAG_STRINGREF);
+                writeHead(UNSIGNED, index);
+                return this;
+            }
+            // Same rule the decoder applies: only strings longer than their reference
+            if (length >= minRefLength(refs.count)) refs.add(value, start, end, hash);
+        }
+        writeHead(TEXT, length);
+        ensure(length);
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buf[size++] = (byte) c;
+            } else if (c < 0x800) {
+                buf[size++] = (byte) (0xC0 | c >> 6);
+                buf[size++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, value.charAt(++i));
+                buf[size++] = (byte) (0xF0 | cp >> 18);
+                buf[size++] = (byte) (0x80 | cp >> 12 & 0x3F);
+                buf[size++] = (byte) (0x80 | cp >> 6 & 0x3F);
+                buf[size++] = (byte) (0x80 | cp & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                buf[size++] = '?';
+            } else {
+                buf[size++] = (byte) (0xE0 | c >> 12);
+                buf[size++] = (byte) (0x80 | c >> 6 & 0x3F);
+                buf[size++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        return this;
+    }
+
+    private static int utf8Length(String value, int start, int end) {
+        int length = end - start;
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                if (c < 0x800) {
+                    length += 1;
+                } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    length += 2;
+                    i++;
+                } else if (!Character.isSurrogate(c)) {
+                    length += 2;
+                }
+            }
+        }
+        return length;
+    }
+
+    // String.hashCode() of the range, so whole strings can use their cached hash
+    private static int hash(String value, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) hash = 31 * hash + value.charAt(i);
+        return hash;
+    }
+
+    // From the stringref spec: a string joins the table only if it is at least as
+    // long as the reference that would replace it
+    private static int minRefLength(int nextIndex) {
+        if (nextIndex < 24) return 3;
+        if (nextIndex < 256) return 4;
+        if (nextIndex < 65536) return 5;
+        return 7;
+    }
+    // =============================
+
+    // ========== GENERIC VALUES ==========
+    CborOutput writeValue(Object value) {
+        if (value == null) {
+            writeNull();
+        } else if (value instanceof String) {
+            writeString((String) value);
+        } else if (value instanceof Movie) {
+            MovieCborWriter.write(this, (Movie) value, movieFields);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            writeInt(((Number) value).longValue());
+        } else if (value instanceof Number) {
+            writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof Boolean) {
+            writeBoolean((Boolean) value);
+        } else if (value instanceof Map) {
+            writeMap((Map<?, ?>) value);
+        } else if (value instanceof List) {
+            writeList((List<?>) value);
+        } else {
+            writeString(value.toString());
+        }
+        return this;
+    }
+
+    CborOutput writeMap(Map<?, ?> map) {
+        beginMap(map.size());
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            writeString(String.valueOf(entry.getKey()));
+            writeValue(entry.getValue());
+        }
+        return this;
+    }
+
+    CborOutput writeList(List<?> list) {
+        beginArray(list.size());
+        if (list instanceof RandomAccess) {
+            for (int i = 0, n = list.size(); i < n; i++) writeValue(list.get(i));
+        } else {
+            for (Object item : list) writeValue(item);
+        }
+        return this;
+    }
+    // ====================================
+
+    // The stringref table: ranges of the strings already written, by content. Open
+    // addressing over parallel arrays, so lookups and inserts allocate nothing
+    // once the arrays have grown to a response's size.
+    private static final class RefTable {
+        private String[] sources = new String[64];
+        private int[] starts = new int[64];
+        private int[] ends = new int[64];
+        private int[] hashes = new int[64];
+        private int[] indexes = new int[64]; // ref index + 1; 0 marks a free slot
+        int count;
+
+        int find(String value, int start, int end, int hash) {
+            int mask = indexes.length - 1;
+            for (int slot = spread(hash) & mask; indexes[slot] != 0; slot = (slot + 1) & mask) {
+                if (hashes[slot] == hash && ends[slot] - starts[slot] == end - start
+                        && sources[slot].regionMatches(starts[slot], value, start, end - start)) {
+                    return indexes[slot] - 1;
+                }
+            }
+            return -1;
+        }
+
+        void add(String value, int start, int end, int hash) {
+            if ((count + 1) * 2 > indexes.length) grow();
+            insert(value, start, end, hash, ++count);
+        }
+
+        private void insert(String value, int start, int end, int hash, int index) {
+            int mask = indexes.length - 1;
+            int slot = spread(hash) & mask;
+            while (indexes[slot] != 0) slot = (slot + 1) & mask;
+            sources[slot] = value;
+            starts[slot] = start;
+            ends[slot] = end;
+            hashes[slot] = hash;
+            indexes[slot] = index;
+        }
+
+        // String hashes of similar titles and URLs differ mostly in their high bits
+        private static int spread(int hash) {
+            int h = hash * 0x9E3779B9;
+            return h ^ h >>> 16;
+        }
+
+        private void grow() {
+            String[] oldSources = sources;
+            int[] oldStarts = starts;
+            int[] oldEnds = ends;
+            int[] oldHashes = hashes;
+            int[] oldIndexes = indexes;
+            int capacity = oldIndexes.length * 2;
+            sources = new String[capacity];
+            starts = new int[capacity];
+            ends = new int[capacity];
+            hashes = new int[capacity];
+            indexes = new int[capacity];
+            for (int slot = 0; slot < oldIndexes.length; slot++) {
+                if (oldIndexes[slot] != 0) {
+                    insert(oldSources[slot], oldStarts[slot], oldEnds[slot], oldHashes[slot], oldIndexes[slot]);
+                }
+            }
+        }
+
+        void clear() {
+            if (count == 0) return;
+            Arrays.fill(indexes, 0);
+            Arrays.fill(sources, null);
+            count = 0;
+        }
+    }
+
+    private void writeHead(int major, long value) {
+        ensure(9);
+        if (value < 24) {
+            buf[size++] = (byte) (major | value);
+        } else if (value < 0x100) {
+            buf[size++] = (byte) (major | 24);
+            buf[size++] = (byte) value;
+        } else if (value < 0x10000) {
+            buf[size++] = (byte) (major | 25);
+            writeBigEndian(value, 2);
+        } else if (value < 0x100000000L) {
+            buf[size++] = (byte) (major | 26);
+            writeBigEndian(value, 4);
+        } else {
+            buf[size++] = (byte) (major | 27);
+            writeBigEndian(value, 8);
+        }
+    }
+
+    private void writeBigEndian(long value, int bytes) {
+        for (int shift = (bytes - 1) * 8; shift >= 0; shift -= 8) {
+            buf[size++] = (byte) (value >>> shift);
+        }
+    }
+
+    private void ensure(int extra) {
+        if (size + extra > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length * 2, size + extra));
+        }
+    }
+}
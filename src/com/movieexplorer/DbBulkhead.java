@@ -0,0 +1,155 @@
+package com.movieexplorer;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bounded pool of JDBC worker threads for one class of queries (auth, favorites,
+// catalog). Each worker owns its own connection, so a slow query only ties up its own
+// bulkhead. Work past the queue limit is rejected immediately, every statement gets
+// a query timeout, and callers give up once the deadline passes.
+class DbBulkhead {
+    private final String name;
+    private final ThreadPoolExecutor executor;
+    private final int queryTimeoutSeconds;
+    private final long deadlineMillis;
+
+    // Connection owned by the current worker thread
+    private final ThreadLocal<Connection> workerConnection = new ThreadLocal<>();
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LatencyHistogram latency;
+
+    DbBulkhead(String name, int threads, int queueLimit, int queryTimeoutSeconds) {
+        this.name = name;
+        this.queryTimeoutSeconds = queryTimeoutSeconds;
+        // Leave the driver a moment to cancel the statement before the caller gives up
+        this.deadlineMillis = queryTimeoutSeconds * 1000L + 500;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueLimit),
+                r -> {
+                    Thread t = new Thread(r, "db-" + name + "-" + threadNumber.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Metrics metrics = Metrics.REGISTRY;
+        this.latency = metrics.timer("db_call_duration_seconds",
+                "Bulkhead calls from submit until the result, queueing included", "bulkhead", name);
+        metrics.counter("db_rejected_total", "Calls turned away by a full bulkhead queue", rejected::sum, "bulkhead", name);
+        metrics.counter("db_timed_out_total", "Calls that passed the bulkhead deadline", timedOut::sum, "bulkhead", name);
+        metrics.gauge("db_active", "Bulkhead workers running a query", executor::getActiveCount, "bulkhead", name);
+        metrics.gauge("db_queued", "Calls waiting for a bulkhead worker", () -> executor.getQueue().size(), "bulkhead", name);
+    }
+
+    @FunctionalInterface
+    interface SqlWork<T> {
+        T run(Connection connection) throws SQLException;
+    }
+
+    // Thrown when the bulkhead's queue is full or the deadline passed; handlers map
+    // it to 503 so clients retry instead of piling on
+    static class UnavailableException extends SQLTransientException {
+        private static final long serialVersionUID = 1L;
+
+        UnavailableException(String message) {
+            super(message);
+        }
+    }
+
+    // ========== EXECUTION ==========
+    <T> T call(SqlWork<T> work) throws SQLException {
+        long start = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> runOnWorker(work));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new UnavailableException("Database busy (" + name + ")");
+        }
+
+        try {
+            return future.get(deadlineMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timedOut.increment();
+            throw new UnavailableException("Database timeout (" + name + ")");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for database (" + name + ")", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) throw (SQLException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new SQLException(cause);
+        } finally {
+            latency.recordNanosSince(start);
+        }
+    }
+
+    private <T> T runOnWorker(SqlWork<T> work) throws SQLException {
+        Connection connection = workerConnection.get();
+        if (connection == null || connection.isClosed()) {
+            connection = withQueryTimeout(DBConnection.getConnection());
+            workerConnection.set(connection);
+        }
+
+        try {
+            return work.run(connection);
+        } catch (SQLException e) {
+            // SQLState class 08 = connection failure; reconnect on the next call
+            if (e.getSQLState() != null && e.getSQLState().startsWith("08")) {
+                closeQuietly(connection);
+                workerConnection.remove();
+            }
+            throw e;
+        }
+    }
+
+    // Wraps the worker's connection so every statement it creates carries the
+    // bulkhead's query timeout, including ones created inside MovieCatalog
+    private Connection withQueryTimeout(Connection raw) throws SQLException {
+        if (raw == null) {
+            throw new SQLNonTransientConnectionException("No database connection (" + name + ")", "08001");
+        }
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result;
+                    try {
+                        result = method.invoke(raw, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if (result instanceof Statement) {
+                        ((Statement) result).setQueryTimeout(queryTimeoutSeconds);
+                    }
+                    return result;
+                });
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // Already broken
+        }
+    }
+    // ===============================
+
+    // ========== STATS ==========
+    String getName() { return name; }
+    int getActive() { return executor.getActiveCount(); }
+    int getQueued() { return executor.getQueue().size(); }
+    long getRejected() { return rejected.sum(); }
+    long getTimedOut() { return timedOut.sum(); }
+    // ===========================
+}
@@ -0,0 +1,235 @@
+package com.movieexplorer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+// Disk cache in front of the TMDb image origin, for the /img/{size}/{file} proxy.
+//
+// Files live under <dir>/<2 hex>/<sha-256 of "size/file">. TMDb image paths are
+// immutable (a new image gets a new path), so the key identifies the content and
+// entries never need revalidating. An access-ordered index tracks bytes on disk;
+// past the budget the least recently served files are deleted. Concurrent misses
+// for one image share a single download, which lands in a temp file and is moved
+// into place, so readers never see a partial image. At startup the index is
+// rebuilt from the directory, oldest first by modification time.
+class ImageProxyCache {
+    static final Set<String> SIZES = Set.of("w92", "w154", "w185", "w300", "w342", "w500", "w780", "w1280", "original");
+    private static final Pattern FILE_NAME = Pattern.compile("[A-Za-z0-9_-]{1,64}\\.(jpg|jpeg|png|webp|svg)");
+    private static final Duration FETCH_TIMEOUT = Duration.ofSeconds(10);
+
+    // Thrown (as the future's cause) when the origin has no such image
+    static class NotFoundException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        NotFoundException(String message) {
+            super(message);
+        }
+    }
+
+    private final HttpClient client;
+    private final String originUrl;
+    private final Path dir;
+    private final long budgetBytes;
+
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(256, 0.75f, true); // key -> bytes
+    private long totalBytes;
+    private final Map<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder originErrors = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    ImageProxyCache(HttpClient client, String originUrl, Path dir, long budgetBytes) throws IOException {
+        this.client = client;
+        this.originUrl = originUrl;
+        this.dir = dir;
+        this.budgetBytes = budgetBytes;
+        Files.createDirectories(dir);
+        loadIndex();
+    }
+
+    static boolean isValid(String size, String file) {
+        return SIZES.contains(size) && FILE_NAME.matcher(file).matches();
+    }
+
+    // ========== LOOKUP ==========
+    // Path of the cached file, downloading it first if needed. Callers should open
+    // the file promptly: eviction may delete it later (an open channel stays readable).
+    CompletableFuture<Path> get(String size, String file) {
+        String key = key(size, file);
+        Path path = pathFor(key);
+        synchronized (index) {
+            if (index.get(key) != null) {
+                hits.increment();
+                return CompletableFuture.completedFuture(path);
+            }
+        }
+
+        CompletableFuture<Path> created = new CompletableFuture<>();
+        CompletableFuture<Path> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            coalesced.increment();
+            return existing;
+        }
+        misses.increment();
+        download(size, file, key, path).whenComplete((result, error) -> {
+            inFlight.remove(key, created);
+            if (error != null) created.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error);
+            else created.complete(result);
+        });
+        return created;
+    }
+
+    // The file was gone when a caller tried to open it (evicted in between); drop the entry
+    void invalidate(String size, String file) {
+        String key = key(size, file);
+        synchronized (index) {
+            Long bytes = index.remove(key);
+            if (bytes != null) totalBytes -= bytes;
+        }
+    }
+
+    private CompletableFuture<Path> download(String size, String file, String key, Path path) {
+        Path tmp;
+        try {
+            Files.createDirectories(path.getParent());
+            tmp = Files.createTempFile(path.getParent(), key.substring(0, 8), ".part");
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(originUrl + "/" + size + "/" + file))
+                .timeout(FETCH_TIMEOUT)
+                .build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofFile(tmp))
+                .thenApply(response -> {
+                    try {
+                        if (response.statusCode() != 200) {
+                            Files.deleteIfExists(tmp);
+                            if (response.statusCode() == 404) throw new NotFoundException(size + "/" + file);
+                            originErrors.increment();
+                            throw new UncheckedIOException(new IOException("Image origin returned HTTP " + response.statusCode()));
+                        }
+                        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                        admit(key, Files.size(path));
+                        return path;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        try {
+                            Files.deleteIfExists(tmp);
+                        } catch (IOException ignored) {
+                            // best effort
+                        }
+                    }
+                });
+    }
+    // ============================
+
+    // ========== BUDGET ==========
+    private void admit(String key, long bytes) {
+        List<String> victims = new ArrayList<>();
+        synchronized (index) {
+            Long previous = index.put(key, bytes);
+            totalBytes += bytes - (previous != null ? previous : 0);
+            Iterator<Map.Entry<String, Long>> it = index.entrySet().iterator();
+            while (totalBytes > budgetBytes && it.hasNext()) {
+                Map.Entry<String, Long> eldest = it.next();
+                if (eldest.getKey().equals(key)) continue; // never evict what we just fetched
+                totalBytes -= eldest.getValue();
+                victims.add(eldest.getKey());
+                it.remove();
+            }
+        }
+        for (String victim : victims) {
+            try {
+                Files.deleteIfExists(pathFor(victim));
+                evictions.increment();
+            } catch (IOException e) {
+                System.out.println("⚠️ Could not evict cached image " + victim + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void loadIndex() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> shards = Files.newDirectoryStream(dir)) {
+            for (Path shard : shards) {
+                if (!Files.isDirectory(shard)) continue;
+                try (DirectoryStream<Path> entries = Files.newDirectoryStream(shard)) {
+                    for (Path file : entries) {
+                        if (file.getFileName().toString().endsWith(".part")) Files.deleteIfExists(file); // interrupted download
+                        else files.add(file);
+                    }
+                }
+            }
+        }
+        Map<Path, Long> modified = new HashMap<>();
+        for (Path file : files) modified.put(file, Files.getLastModifiedTime(file).toMillis());
+        files.sort(Comparator.comparing(modified::get));
+        for (Path file : files) {
+            admit(file.getFileName().toString(), Files.size(file));
+        }
+        if (!files.isEmpty()) {
+            System.out.println("✅ Image cache: " + index.size() + " files, " + (totalBytes >> 20) + " MB in " + dir);
+        }
+    }
+    // ============================
+
+    private Path pathFor(String key) {
+        return dir.resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    private static String key(String size, String file) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest((size + "/" + file).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String contentType(String file) {
+        String lower = file.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".png")) return "image/png";
+        if (lower.endsWith(".webp")) return "image/webp";
+        if (lower.endsWith(".svg")) return "image/svg+xml";
+        return "image/jpeg";
+    }
+
+    Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (index) {
+            stats.put("files", index.size());
+            stats.put("bytes", totalBytes);
+        }
+        stats.put("budget_bytes", budgetBytes);
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("coalesced", coalesced.sum());
+        stats.put("origin_errors", originErrors.sum());
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+}
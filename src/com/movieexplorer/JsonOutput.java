@@ -0,0 +1,316 @@
+package com.movieexplorer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+// JSON written straight into a growable UTF-8 byte buffer. Numbers are formatted
+// digit by digit and strings escaped and encoded in one pass, so writing ints,
+// doubles and strings allocates nothing; only growing the buffer does. Handlers
+// take the per-thread instance from reuse() and write it out before taking it again.
+//
+// Specialized writers (MovieJsonWriter) emit keys as precomputed bytes via writeRaw;
+// writeValue covers everything else (maps, lists, boxed scalars) the way JsonUtil does.
+final class JsonOutput {
+    private static final int INITIAL_CAPACITY = 8 * 1024;
+    private static final int MAX_RETAINED_CAPACITY = 1024 * 1024;
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] MIN_LONG = Long.toString(Long.MIN_VALUE).getBytes(StandardCharsets.US_ASCII);
+    // Fast-path doubles are written as an exact long scaled by 10^decimals
+    private static final double[] POW10 = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15};
+    private static final long MAX_EXACT_LONG = 1L << 53;
+    private static final double MAX_FAST_DOUBLE = 1e7; // where Double.toString switches to E notation
+
+    private static final ThreadLocal<JsonOutput> PER_THREAD = ThreadLocal.withInitial(JsonOutput::new);
+
+    private byte[] buf;
+    private int size;
+    private int movieFields = MovieJsonWriter.ALL; // projection for Movies written via writeValue
+
+    JsonOutput() {
+        this(INITIAL_CAPACITY);
+    }
+
+    JsonOutput(int capacity) {
+        buf = new byte[Math.max(16, capacity)];
+    }
+
+    // This thread's buffer, emptied. Oversized buffers from a huge response are dropped
+    // rather than kept around per thread.
+    static JsonOutput reuse() {
+        JsonOutput out = PER_THREAD.get();
+        if (out.buf.length > MAX_RETAINED_CAPACITY) {
+            out = new JsonOutput();
+            PER_THREAD.set(out);
+        }
+        out.size = 0;
+        out.movieFields = MovieJsonWriter.ALL;
+        return out;
+    }
+
+    // Movies written from here on carry only these MovieJsonWriter fields
+    JsonOutput projectMovies(int fields) {
+        movieFields = fields;
+        return this;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void writeTo(OutputStream os) throws IOException {
+        os.write(buf, 0, size);
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buf, size);
+    }
+
+    @Override
+    public String toString() {
+        return new String(buf, 0, size, StandardCharsets.UTF_8);
+    }
+
+    // ========== RAW ==========
+    // Precomputed JSON fragment (keys with their quotes and colon, punctuation)
+    JsonOutput writeRaw(byte[] bytes) {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buf, size, bytes.length);
+        size += bytes.length;
+        return this;
+    }
+
+    // ASCII-only literal text, e.g. a response envelope
+    JsonOutput writeAscii(String text) {
+        int length = text.length();
+        ensure(length);
+        for (int i = 0; i < length; i++) {
+            buf[size++] = (byte) text.charAt(i);
+        }
+        return this;
+    }
+
+    JsonOutput writeByte(char c) {
+        ensure(1);
+        buf[size++] = (byte) c;
+        return this;
+    }
+
+    JsonOutput writeNull() {
+        return writeRaw(NULL);
+    }
+
+    JsonOutput writeBoolean(boolean value) {
+        return writeRaw(value ? TRUE : FALSE);
+    }
+    // =========================
+
+    // ========== NUMBERS ==========
+    JsonOutput writeInt(long value) {
+        if (value == Long.MIN_VALUE) return writeRaw(MIN_LONG);
+        ensure(20);
+        if (value < 0) {
+            buf[size++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) digits++;
+        int end = size + digits;
+        for (int pos = end - 1; pos >= size; pos--) {
+            buf[pos] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        size = end;
+        return this;
+    }
+
+    // Same text as Double.toString for the values we serve (ratings, popularity):
+    // the fewest decimals that parse back to exactly this double, with ".0" on whole
+    // numbers. Values Double.toString would put in E notation, or that need more
+    // than 53 bits of digits, fall back to it. NaN and infinities aren't JSON, so
+    // they become null.
+    JsonOutput writeDouble(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) return writeNull();
+        double magnitude = Math.abs(value);
+        if (magnitude < MAX_FAST_DOUBLE && (magnitude >= 1e-3 || magnitude == 0)) {
+            for (int decimals = 0; decimals < POW10.length; decimals++) {
+                double unit = POW10[decimals];
+                long scaled = Math.round(magnitude * unit);
+                if (scaled >= MAX_EXACT_LONG) break;
+                // scaled and 10^decimals are exact, so the division is correctly
+                // rounded: equality means the decimal text reads back as value. The
+                // multiplication may round, so the neighbours are candidates too.
+                if (scaled / unit != magnitude) {
+                    if ((scaled + 1) / unit == magnitude) scaled++;
+                    else if (scaled > 0 && (scaled - 1) / unit == magnitude) scaled--;
+                    else continue;
+                }
+                if (value < 0 || (value == 0 && 1 / value < 0)) writeByte('-');
+                writeFixed(scaled, decimals);
+                return this;
+            }
+        }
+        return writeAscii(Double.toString(value));
+    }
+
+    private void writeFixed(long scaled, int decimals) {
+        if (decimals == 0) {
+            writeInt(scaled);
+            ensure(2);
+            buf[size++] = '.';
+            buf[size++] = '0';
+            return;
+        }
+        long unit = (long) POW10[decimals];
+        writeInt(scaled / unit);
+        long fraction = scaled % unit;
+        ensure(decimals + 1);
+        buf[size++] = '.';
+        for (int pos = size + decimals - 1; pos >= size; pos--) {
+            buf[pos] = (byte) ('0' + fraction % 10);
+            fraction /= 10;
+        }
+        size += decimals;
+    }
+    // =============================
+
+    // ========== STRINGS ==========
+    // Quoted, escaped and UTF-8 encoded; null writes null. Control characters get
+    // escapes and lone surrogates become '?', so the output is always valid JSON.
+    JsonOutput writeString(String value) {
+        if (value == null) return writeNull();
+        int length = value.length();
+        ensure(length + 2);
+        buf[size++] = '"';
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (c >= 0x20 && c != '"' && c != '\\') {
+                    if (size == buf.length) ensure(1);
+                    buf[size++] = (byte) c;
+                } else {
+                    writeEscape(c);
+                }
+            } else if (c < 0x800) {
+                ensure(2);
+                buf[size++] = (byte) (0xC0 | c >> 6);
+                buf[size++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, value.charAt(++i));
+                ensure(4);
+                buf[size++] = (byte) (0xF0 | cp >> 18);
+                buf[size++] = (byte) (0x80 | cp >> 12 & 0x3F);
+                buf[size++] = (byte) (0x80 | cp >> 6 & 0x3F);
+                buf[size++] = (byte) (0x80 | cp & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                ensure(1);
+                buf[size++] = '?';
+            } else {
+                ensure(3);
+                buf[size++] = (byte) (0xE0 | c >> 12);
+                buf[size++] = (byte) (0x80 | c >> 6 & 0x3F);
+                buf[size++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        ensure(1);
+        buf[size++] = '"';
+        return this;
+    }
+
+    private void writeEscape(char c) {
+        ensure(6);
+        buf[size++] = '\\';
+        switch (c) {
+            case '"': buf[size++] = '"'; break;
+            case '\\': buf[size++] = '\\'; break;
+            case '\n': buf[size++] = 'n'; break;
+            case '\r': buf[size++] = 'r'; break;
+            case '\t': buf[size++] = 't'; break;
+            case '\b': buf[size++] = 'b'; break;
+            case '\f': buf[size++] = 'f'; break;
+            default:
+                buf[size++] = 'u';
+                buf[size++] = '0';
+                buf[size++] = '0';
+                buf[size++] = HEX[c >> 4];
+                buf[size++] = HEX[c & 0xF];
+        }
+    }
+    // =============================
+
+    // ========== GENERIC VALUES ==========
+    // Any response value: Movies go through MovieJsonWriter, collections are walked,
+    // other objects are written as their toString()
+    JsonOutput writeValue(Object value) {
+        if (value == null) {
+            writeNull();
+        } else if (value instanceof String) {
+            writeString((String) value);
+        } else if (value instanceof Movie) {
+            MovieJsonWriter.write(this, (Movie) value, movieFields);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            writeInt(((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof Boolean) {
+            writeBoolean((Boolean) value);
+        } else if (value instanceof Map) {
+            writeMap((Map<?, ?>) value);
+        } else if (value instanceof List) {
+            writeList((List<?>) value);
+        } else if (value instanceof Number) {
+            writeAscii(value.toString());
+        } else {
+            writeString(value.toString());
+        }
+        return this;
+    }
+
+    JsonOutput writeMap(Map<?, ?> map) {
+        writeByte('{');
+        if (!map.isEmpty()) {
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (!first) writeByte(',');
+                first = false;
+                writeString(String.valueOf(entry.getKey()));
+                writeByte(':');
+                writeValue(entry.getValue());
+            }
+        }
+        return writeByte('}');
+    }
+
+    JsonOutput writeList(List<?> list) {
+        writeByte('[');
+        if (list instanceof RandomAccess) {
+            for (int i = 0, n = list.size(); i < n; i++) {
+                if (i > 0) writeByte(',');
+                writeValue(list.get(i));
+            }
+        } else {
+            boolean first = true;
+            for (Object item : list) {
+                if (!first) writeByte(',');
+                first = false;
+                writeValue(item);
+            }
+        }
+        return writeByte(']');
+    }
+    // ====================================
+
+    private void ensure(int extra) {
+        if (size + extra > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length * 2, size + extra));
+        }
+    }
+}
@@ -0,0 +1,422 @@
+package com.movieexplorer;
+
+import java.io.*;
+import java.util.*;
+
+// Streaming pull parser for JSON. Callers walk tokens with peek()/beginObject()/nextName()
+// etc. and only materialize the values they need; readValue() builds Map/List trees
+// for the (small) parts that must be handed to Map-based code like Movie.fromTMDbData.
+class JsonReader implements Closeable {
+    enum Token { BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT }
+
+    // Scopes on the nesting stack
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_ARRAY = 2;
+    private static final int NONEMPTY_ARRAY = 3;
+    private static final int EMPTY_OBJECT = 4;
+    private static final int DANGLING_NAME = 5;
+    private static final int NONEMPTY_OBJECT = 6;
+
+    private final Reader in;
+    private final char[] buffer;
+    private final int maxDepth;
+    private int pos = 0;
+    private int limit = 0;
+
+    private int[] stack = new int[32];
+    private int stackSize = 1;
+
+    private Token peeked;
+    private final StringBuilder scratch = new StringBuilder();
+
+    JsonReader(Reader in) {
+        this(in, 8192, Integer.MAX_VALUE);
+    }
+
+    // For untrusted input: a buffer sized to the expected document and a nesting limit
+    JsonReader(Reader in, int bufferSize, int maxDepth) {
+        this.in = in;
+        this.buffer = new char[bufferSize];
+        this.maxDepth = maxDepth;
+        stack[0] = EMPTY_DOCUMENT;
+    }
+
+    JsonReader(String json) {
+        this(new StringReader(json));
+    }
+
+    // ========== TOKEN NAVIGATION ==========
+    Token peek() throws IOException {
+        if (peeked != null) return peeked;
+
+        int scope = stack[stackSize - 1];
+        switch (scope) {
+            case EMPTY_ARRAY:
+                stack[stackSize - 1] = NONEMPTY_ARRAY;
+                if (nextNonWhitespace() == ']') {
+                    pos++;
+                    return peeked = Token.END_ARRAY;
+                }
+                return peeked = peekValue();
+
+            case NONEMPTY_ARRAY: {
+                int c = nextNonWhitespace();
+                pos++;
+                if (c == ']') return peeked = Token.END_ARRAY;
+                if (c != ',') throw syntaxError("Expected ',' or ']'");
+                nextNonWhitespace();
+                return peeked = peekValue();
+            }
+
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT: {
+                stack[stackSize - 1] = DANGLING_NAME;
+                int c = nextNonWhitespace();
+                pos++;
+                if (c == '}') return peeked = Token.END_OBJECT;
+                if (scope == NONEMPTY_OBJECT) {
+                    if (c != ',') throw syntaxError("Expected ',' or '}'");
+                    c = nextNonWhitespace();
+                    pos++;
+                }
+                if (c != '"') throw syntaxError("Expected name");
+                return peeked = Token.NAME;
+            }
+
+            case DANGLING_NAME:
+                stack[stackSize - 1] = NONEMPTY_OBJECT;
+                if (nextNonWhitespace() != ':') throw syntaxError("Expected ':'");
+                pos++;
+                nextNonWhitespace();
+                return peeked = peekValue();
+
+            case EMPTY_DOCUMENT:
+                stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+                if (nextNonWhitespace() == -1) throw syntaxError("Empty document");
+                return peeked = peekValue();
+
+            default: // NONEMPTY_DOCUMENT
+                if (nextNonWhitespace() != -1) throw syntaxError("Trailing data after document");
+                return peeked = Token.END_DOCUMENT;
+        }
+    }
+
+    // Classifies the value starting at pos; strings consume their opening quote
+    private Token peekValue() throws IOException {
+        int c = pos < limit ? buffer[pos] : -1;
+        switch (c) {
+            case '{': pos++; return Token.BEGIN_OBJECT;
+            case '[': pos++; return Token.BEGIN_ARRAY;
+            case '"': pos++; return Token.STRING;
+            case 't': case 'f': return Token.BOOLEAN;
+            case 'n': return Token.NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) return Token.NUMBER;
+                throw syntaxError("Unexpected character");
+        }
+    }
+
+    void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+        stackSize--;
+    }
+
+    void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+        stackSize--;
+    }
+
+    boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+    // ======================================
+
+    // ========== VALUES ==========
+    String nextName() throws IOException {
+        expect(Token.NAME);
+        return readQuoted();
+    }
+
+    // Numbers and booleans are returned as their literal text
+    String nextString() throws IOException {
+        Token token = peek();
+        peeked = null;
+        switch (token) {
+            case STRING: return readQuoted();
+            case NUMBER: {
+                String text = readLiteral();
+                if (!isNumber(text)) throw syntaxError("Invalid number: " + text);
+                return text;
+            }
+            case BOOLEAN: return readLiteral();
+            default: throw syntaxError("Expected string but was " + token);
+        }
+    }
+
+    double nextDouble() throws IOException {
+        Token token = peek();
+        if (token != Token.NUMBER && token != Token.STRING) throw syntaxError("Expected number but was " + token);
+        String text = nextString();
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw syntaxError("Invalid number: " + text);
+        }
+    }
+
+    long nextLong() throws IOException {
+        double value = nextDouble();
+        if (value != Math.rint(value)) throw syntaxError("Expected integer but was " + value);
+        return (long) value;
+    }
+
+    int nextInt() throws IOException {
+        long value = nextLong();
+        if (value != (int) value) throw syntaxError("Integer out of range: " + value);
+        return (int) value;
+    }
+
+    boolean nextBoolean() throws IOException {
+        expect(Token.BOOLEAN);
+        String literal = readLiteral();
+        if (literal.equals("true")) return true;
+        if (literal.equals("false")) return false;
+        throw syntaxError("Invalid literal: " + literal);
+    }
+
+    void nextNull() throws IOException {
+        expect(Token.NULL);
+        if (!readLiteral().equals("null")) throw syntaxError("Invalid literal");
+    }
+
+    // Skips the next value, however deeply nested, without building anything
+    void skipValue() throws IOException {
+        int depth = 0;
+        do {
+            Token token = peek();
+            switch (token) {
+                case BEGIN_OBJECT: beginObject(); depth++; break;
+                case BEGIN_ARRAY: beginArray(); depth++; break;
+                case END_OBJECT: endObject(); depth--; break;
+                case END_ARRAY: endArray(); depth--; break;
+                case NAME: nextName(); break;
+                case NULL: nextNull(); break;
+                case BOOLEAN: nextBoolean(); break;
+                case STRING: case NUMBER: nextString(); break;
+                default: throw syntaxError("Unexpected end of document");
+            }
+        } while (depth > 0);
+    }
+
+    // Materializes the next value: Map (insertion ordered), List, String,
+    // Long/Double, Boolean or null
+    Object readValue() throws IOException {
+        switch (peek()) {
+            case BEGIN_OBJECT: {
+                Map<String, Object> map = new LinkedHashMap<>();
+                beginObject();
+                while (hasNext()) {
+                    String name = nextName();
+                    map.put(name, readValue());
+                }
+                endObject();
+                return map;
+            }
+            case BEGIN_ARRAY: {
+                List<Object> list = new ArrayList<>();
+                beginArray();
+                while (hasNext()) {
+                    list.add(readValue());
+                }
+                endArray();
+                return list;
+            }
+            case STRING:
+                return nextString();
+            case NUMBER: {
+                String text = nextString();
+                if (text.indexOf('.') < 0 && text.indexOf('e') < 0 && text.indexOf('E') < 0) {
+                    try {
+                        return Long.parseLong(text);
+                    } catch (NumberFormatException e) {
+                        // Too large for a long, fall through to double
+                    }
+                }
+                return Double.parseDouble(text);
+            }
+            case BOOLEAN:
+                return nextBoolean();
+            case NULL:
+                nextNull();
+                return null;
+            default:
+                throw syntaxError("Expected a value");
+        }
+    }
+    // ============================
+
+    // ========== LEXING ==========
+    private void expect(Token expected) throws IOException {
+        Token token = peek();
+        if (token != expected) throw syntaxError("Expected " + expected + " but was " + token);
+        peeked = null;
+    }
+
+    private void push(int scope) throws IOException {
+        if (stackSize > maxDepth) throw syntaxError("Nesting deeper than " + maxDepth);
+        if (stackSize == stack.length) {
+            stack = Arrays.copyOf(stack, stackSize * 2);
+        }
+        stack[stackSize++] = scope;
+    }
+
+    // Returns the next non-whitespace char without consuming it, or -1 at EOF
+    private int nextNonWhitespace() throws IOException {
+        while (true) {
+            if (pos == limit && !fill()) return -1;
+            char c = buffer[pos];
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+                pos++;
+            } else {
+                return c;
+            }
+        }
+    }
+
+    private boolean fill() throws IOException {
+        int read = in.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            pos = limit = 0;
+            return false;
+        }
+        pos = 0;
+        limit = read;
+        return true;
+    }
+
+    private int nextChar() throws IOException {
+        if (pos == limit && !fill()) return -1;
+        return buffer[pos++];
+    }
+
+    // Reads up to the closing quote (opening quote already consumed), decoding escapes
+    private String readQuoted() throws IOException {
+        scratch.setLength(0);
+        while (true) {
+            int start = pos;
+            while (pos < limit) {
+                char c = buffer[pos];
+                if (c == '"') {
+                    scratch.append(buffer, start, pos - start);
+                    pos++;
+                    return scratch.toString();
+                }
+                if (c == '\\') {
+                    scratch.append(buffer, start, pos - start);
+                    pos++;
+                    scratch.append(readEscape());
+                    start = pos;
+                    continue;
+                }
+                if (c < 0x20) throw syntaxError("Unescaped control character in string");
+                pos++;
+            }
+            scratch.append(buffer, start, pos - start);
+            if (!fill()) throw syntaxError("Unterminated string");
+        }
+    }
+
+    private char readEscape() throws IOException {
+        int c = nextChar();
+        switch (c) {
+            case '"': return '"';
+            case '\\': return '\\';
+            case '/': return '/';
+            case 'b': return '\b';
+            case 'f': return '\f';
+            case 'n': return '\n';
+            case 'r': return '\r';
+            case 't': return '\t';
+            case 'u': {
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int h = Character.digit(nextChar(), 16);
+                    if (h < 0) throw syntaxError("Invalid \\u escape");
+                    value = (value << 4) | h;
+                }
+                return (char) value;
+            }
+            default:
+                throw syntaxError("Invalid escape sequence");
+        }
+    }
+
+    // Unquoted literal: number, true, false or null
+    private String readLiteral() throws IOException {
+        scratch.setLength(0);
+        while (true) {
+            if (pos == limit && !fill()) break;
+            char c = buffer[pos];
+            if ((c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || c == '-' || c == '+' || c == '.' || c == 'E') {
+                scratch.append(c);
+                pos++;
+            } else {
+                break;
+            }
+        }
+        return scratch.toString();
+    }
+
+    // RFC 8259 number grammar: -?(0|[1-9][0-9]*)(.[0-9]+)?([eE][+-]?[0-9]+)?
+    private static boolean isNumber(String text) {
+        int i = 0;
+        int n = text.length();
+        if (i < n && text.charAt(i) == '-') i++;
+        if (i < n && text.charAt(i) == '0') {
+            i++;
+        } else {
+            int start = i;
+            while (i < n && isDigit(text.charAt(i))) i++;
+            if (i == start) return false;
+        }
+        if (i < n && text.charAt(i) == '.') {
+            int start = ++i;
+            while (i < n && isDigit(text.charAt(i))) i++;
+            if (i == start) return false;
+        }
+        if (i < n && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            i++;
+            if (i < n && (text.charAt(i) == '+' || text.charAt(i) == '-')) i++;
+            int start = i;
+            while (i < n && isDigit(text.charAt(i))) i++;
+            if (i == start) return false;
+        }
+        return i == n;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private IOException syntaxError(String message) {
+        return new IOException("Malformed JSON: " + message);
+    }
+    // ============================
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
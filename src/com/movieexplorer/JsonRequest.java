@@ -0,0 +1,142 @@
+package com.movieexplorer;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+// A JSON object request body ({"email": "...", "password": "..."}), parsed straight
+// from the request stream. Only top-level scalar fields are kept; nested values
+// are skipped without being built. The body is capped at maxBytes (checked against
+// Content-Length up front and while reading), nesting at MAX_DEPTH, and invalid
+// UTF-8, duplicate names and malformed JSON are all rejected.
+final class JsonRequest {
+    static final int DEFAULT_MAX_BYTES = 16 * 1024;
+    private static final int MAX_DEPTH = 16;
+    private static final int MAX_BUFFER_CHARS = 4096;
+
+    // Body over the limit; handlers answer 413
+    static class TooLargeException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        TooLargeException(long maxBytes) {
+            super("Request body larger than " + maxBytes + " bytes");
+        }
+    }
+
+    // Not a well-formed JSON object; handlers answer 400
+    static class MalformedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        MalformedException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    private final Map<String, Object> fields; // String, NumberLiteral, Boolean or null
+
+    private JsonRequest(Map<String, Object> fields) {
+        this.fields = fields;
+    }
+
+    // contentLength is the declared length, or -1 if unknown (chunked)
+    static JsonRequest read(InputStream body, long contentLength, int maxBytes) throws IOException {
+        if (contentLength > maxBytes) throw new TooLargeException(maxBytes);
+        int bufferChars = (int) Math.min(MAX_BUFFER_CHARS, contentLength > 0 ? contentLength : MAX_BUFFER_CHARS);
+
+        Map<String, Object> fields = new HashMap<>();
+        InputStreamReader reader = new InputStreamReader(new LimitedInputStream(body, maxBytes),
+                StandardCharsets.UTF_8.newDecoder()); // the decoder reports bad UTF-8 instead of replacing it
+        try (JsonReader json = new JsonReader(reader, Math.max(16, bufferChars), MAX_DEPTH)) {
+            json.beginObject();
+            while (json.hasNext()) {
+                String name = json.nextName();
+                if (fields.containsKey(name)) throw new IOException("Duplicate field \"" + name + "\"");
+                switch (json.peek()) {
+                    case STRING:
+                        fields.put(name, json.nextString());
+                        break;
+                    case NUMBER:
+                        fields.put(name, new NumberLiteral(json.nextString()));
+                        break;
+                    case BOOLEAN:
+                        fields.put(name, json.nextBoolean());
+                        break;
+                    case NULL:
+                        json.nextNull();
+                        fields.put(name, null);
+                        break;
+                    default:
+                        json.skipValue();
+                }
+            }
+            json.endObject();
+            json.peek(); // must be END_DOCUMENT: no trailing data
+        } catch (TooLargeException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new MalformedException("Invalid JSON body: " + e.getMessage(), e);
+        }
+        return new JsonRequest(fields);
+    }
+
+    // ========== TYPED ACCESS ==========
+    // The field if it is a JSON string, else null
+    String string(String name) {
+        Object value = fields.get(name);
+        return value instanceof String ? (String) value : null;
+    }
+
+    // The field as an int; accepts a JSON integer or a numeric string. Null if absent,
+    // NumberFormatException if present but not an int.
+    Integer integer(String name) {
+        Object value = fields.get(name);
+        if (value == null) return null;
+        if (value instanceof NumberLiteral) return Integer.parseInt(((NumberLiteral) value).text);
+        if (value instanceof String) return Integer.parseInt(((String) value).trim());
+        throw new NumberFormatException("Field \"" + name + "\" is not a number");
+    }
+    // ==================================
+
+    // Numbers stay as their literal until asked for, so nothing is lost to rounding
+    private static final class NumberLiteral {
+        final String text;
+
+        NumberLiteral(String text) {
+            this.text = text;
+        }
+    }
+
+    // Fails the read once more than maxBytes have come through
+    private static final class LimitedInputStream extends FilterInputStream {
+        private final long maxBytes;
+        private long count;
+
+        LimitedInputStream(InputStream in, long maxBytes) {
+            super(in);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) checkLimit(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) checkLimit(n);
+            return n;
+        }
+
+        private void checkLimit(int n) throws IOException {
+            count += n;
+            if (count > maxBytes) throw new TooLargeException(maxBytes);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.movieexplorer;
+
+import java.util.*;
+
+// Minimal reflection-free JSON writer for maps, lists and scalars. Responses now go
+// through JsonOutput; JsonBenchmark still measures this path for comparison.
+class JsonUtil {
+    public static String toJson(Object obj) {
+        if (obj instanceof Map) {
+            return mapToJson((Map<?, ?>) obj);
+        } else if (obj instanceof List) {
+            return listToJson((List<?>) obj);
+        } else if (obj instanceof String) {
+            return "\"" + escapeJson((String) obj) + "\"";
+        } else if (obj instanceof Number || obj instanceof Boolean) {
+            return obj.toString();
+        } else if (obj == null) {
+            return "null";
+        }
+        return "\"" + escapeJson(obj.toString()) + "\"";
+    }
+
+    private static String mapToJson(Map<?, ?> map) {
+        StringBuilder json = new StringBuilder("{");
+        int i = 0;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            json.append("\"").append(entry.getKey()).append("\":")
+                    .append(toJson(entry.getValue()));
+            if (++i < map.size()) json.append(",");
+        }
+        json.append("}");
+        return json.toString();
+    }
+
+    private static String listToJson(List<?> list) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < list.size(); i++) {
+            json.append(toJson(list.get(i)));
+            if (i < list.size() - 1) json.append(",");
+        }
+        json.append("]");
+        return json.toString();
+    }
+
+    private static String escapeJson(String input) {
+        if (input == null) return "";
+        return input.replace("\\", "\\\\")
+                .replace("\"", "\\\"")
+                .replace("\n", "\\n")
+                .replace("\r", "\\r")
+                .replace("\t", "\\t");
+    }
+}
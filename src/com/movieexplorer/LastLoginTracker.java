@@ -0,0 +1,115 @@
+package com.movieexplorer;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+// Write-behind buffer for users.last_login_at. Logins only record the time in
+// memory; repeated logins by the same user coalesce, and a background thread writes
+// everything pending as one batched UPDATE every few seconds, sooner once enough
+// users are waiting, and one last time at shutdown.
+class LastLoginTracker {
+    private static final String UPDATE_SQL =
+            "UPDATE users SET last_login_at = ? WHERE id = ? AND (last_login_at IS NULL OR last_login_at < ?)";
+
+    private final DbBulkhead db;
+    private final int flushThreshold;
+    private final Map<Integer, Long> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+
+    LastLoginTracker(DbBulkhead db, int flushThreshold, long flushIntervalSeconds) {
+        this.db = db;
+        this.flushThreshold = flushThreshold;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "last-login-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalSeconds, flushIntervalSeconds, TimeUnit.SECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flushQuietly, "last-login-final-flush"));
+    }
+
+    // Called on the login path: no I/O
+    void record(int userId) {
+        pending.merge(userId, System.currentTimeMillis(), Math::max);
+        recorded.increment();
+        if (pending.size() >= flushThreshold && flushQueued.compareAndSet(false, true)) {
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    // ========== FLUSHING ==========
+    private void flushQuietly() {
+        flushQueued.set(false);
+        try {
+            flush();
+        } catch (SQLException e) {
+            failedFlushes.increment();
+            System.err.println("⚠️ Last-login flush failed, will retry: " + e.getMessage());
+        }
+    }
+
+    // Synchronized so the shutdown flush cannot interleave with a scheduled one
+    synchronized int flush() throws SQLException {
+        if (pending.isEmpty()) return 0;
+
+        // Take entries out one by one; a login racing with this just lands in the next batch
+        Map<Integer, Long> batch = new HashMap<>();
+        for (Integer userId : new ArrayList<>(pending.keySet())) {
+            Long loginAt = pending.remove(userId);
+            if (loginAt != null) batch.put(userId, loginAt);
+        }
+        if (batch.isEmpty()) return 0;
+
+        try {
+            db.call(c -> {
+                boolean autoCommit = c.getAutoCommit();
+                c.setAutoCommit(false);
+                try (PreparedStatement stmt = c.prepareStatement(UPDATE_SQL)) {
+                    for (Map.Entry<Integer, Long> entry : batch.entrySet()) {
+                        Timestamp loginAt = new Timestamp(entry.getValue());
+                        stmt.setTimestamp(1, loginAt);
+                        stmt.setInt(2, entry.getKey());
+                        stmt.setTimestamp(3, loginAt);
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                    c.commit();
+                } catch (SQLException e) {
+                    c.rollback();
+                    throw e;
+                } finally {
+                    c.setAutoCommit(autoCommit);
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            // Put them back, keeping whichever login is newer
+            batch.forEach((userId, loginAt) -> pending.merge(userId, loginAt, Math::max));
+            throw e;
+        }
+
+        written.add(batch.size());
+        return batch.size();
+    }
+    // ==============================
+
+    Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", pending.size());
+        stats.put("recordedTotal", recorded.sum());
+        stats.put("writtenTotal", written.sum());
+        stats.put("failedFlushes", failedFlushes.sum());
+        return stats;
+    }
+}
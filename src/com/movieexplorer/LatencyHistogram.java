@@ -0,0 +1,127 @@
+package com.movieexplorer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Fixed-size, log-bucketed latency histogram in the style of HdrHistogram. Values
+// below 128 get a bucket each; above that every power of two is split into 64
+// linear sub-buckets, so any recorded value is known to within 1/64 (~1.6%) from
+// 1ns up to Long.MAX_VALUE in 3776 counters. Recording is a couple of shifts and
+// an atomic increment, safe from any number of threads and allocation-free, so
+// it can sit on request paths.
+//
+// Percentiles report the highest value of the bucket they fall in, which is how
+// HdrHistogram reports them: never lower than the true value.
+final class LatencyHistogram {
+    private static final int SUB_BITS = 6;
+    private static final int SUB_COUNT = 1 << SUB_BITS;           // 64 sub-buckets per power of two
+    private static final int LINEAR_LIMIT = 2 * SUB_COUNT;        // values below this are exact
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_COUNT + SUB_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    void record(long value) {
+        if (value < 0) value = 0;
+        counts.incrementAndGet(index(value));
+        total.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    void recordNanosSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    long count() {
+        return total.sum();
+    }
+
+    long sum() {
+        return sum.sum();
+    }
+
+    long max() {
+        return max.get();
+    }
+
+    double mean() {
+        long n = total.sum();
+        return n == 0 ? 0 : sum.sum() / (double) n;
+    }
+
+    // Smallest recorded bucket value v such that at least `percentile`% of values are <= v
+    long percentile(double percentile) {
+        long n = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) n += snapshot[i] = counts.get(i);
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) return Math.min(highestValue(i), max.get());
+        }
+        return max.get();
+    }
+
+    // Adds other's counts into this one (e.g. per-thread or per-scenario histograms)
+    void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long c = other.counts.get(i);
+            if (c != 0) counts.addAndGet(i, c);
+        }
+        total.add(other.total.sum());
+        sum.add(other.sum.sum());
+        max.accumulate(other.max.get());
+    }
+
+    void clear() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        total.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    // Bucket upper bounds and counts for non-empty buckets, in ascending order:
+    // {upperBound0, count0, upperBound1, count1, ...}
+    long[] buckets() {
+        int used = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) if ((snapshot[i] = counts.get(i)) != 0) used++;
+        long[] out = new long[used * 2];
+        int o = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (snapshot[i] == 0) continue;
+            out[o++] = highestValue(i);
+            out[o++] = snapshot[i];
+        }
+        return out;
+    }
+
+    static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    // ========== BUCKET MATH ==========
+    // Values 0..127 map to themselves; above that, shift so the value keeps its top
+    // 7 bits (64..127) and put it in sub-bucket (top - 64) of row `shift`
+    static int index(long value) {
+        if (value < LINEAR_LIMIT) return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return (shift + 1) * SUB_COUNT + (int) (value >>> shift) - SUB_COUNT;
+    }
+
+    static long highestValue(int index) {
+        if (index < LINEAR_LIMIT) return index;
+        int shift = index / SUB_COUNT - 1;
+        long top = index % SUB_COUNT + SUB_COUNT;
+        long upper = ((top + 1) << shift) - 1;
+        return upper < 0 ? Long.MAX_VALUE : upper;
+    }
+    // ==============================
+}
@@ -0,0 +1,269 @@
+package com.movieexplorer;
+
+import java.io.PrintStream;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Asynchronous logger for request paths. A call claims a slot in a pre-allocated
+// ring buffer and stores the message template and its arguments as they are; a
+// background thread formats the events and writes them to System.out. So a
+// request thread never formats, never takes the stdout lock and never waits for
+// the terminal. If the ring is full the event is dropped and counted, not waited on.
+//
+// Each call site gets a Site, declared once as a constant:
+//
+//   private static final Log.Site SEARCH_LOG = Log.site("search").rateLimit(50);
+//   SEARCH_LOG.info("🔍 Trie search: \"{}\" → {} results", query, results.size());
+//
+// "{}" placeholders are filled on the drain thread, and a call whose level is off
+// returns before anything is stored. Sites can also keep 1 in N events (sample)
+// and cap events per second (rateLimit); the next line from a rate-limited site
+// says how many were suppressed. The level comes from LOG_LEVEL (default INFO).
+//
+// Arguments are held until the line is written, so pass values that won't change.
+final class Log {
+    enum Level { DEBUG, INFO, WARN, ERROR }
+
+    private static final int CAPACITY = 8192; // power of two
+    private static final int MASK = CAPACITY - 1;
+    private static final long IDLE_PARK_NANOS = 1_000_000;
+    private static final Level DEFAULT_LEVEL = parseLevel(System.getenv("LOG_LEVEL"));
+
+    // One pre-allocated slot; written by the producer that claimed it, then read
+    // and cleared by the drain thread after `published` says it is complete
+    private static final class Event {
+        long millis;
+        Level level;
+        Site site;
+        String thread;
+        String message;
+        int argCount;
+        final Object[] args = new Object[3];
+        int suppressed;
+    }
+
+    private static final Event[] ring = new Event[CAPACITY];
+    private static final AtomicLongArray published = new AtomicLongArray(CAPACITY);
+    private static final AtomicLong head = new AtomicLong();  // next sequence to claim
+    private static volatile long tail;                        // next sequence to drain
+    private static final LongAdder dropped = new LongAdder();
+    private static long reportedDropped; // drain thread only
+
+    static {
+        for (int i = 0; i < CAPACITY; i++) {
+            ring[i] = new Event();
+            published.set(i, -1);
+        }
+        Thread drainer = new Thread(Log::drainLoop, "log-drain");
+        drainer.setDaemon(true);
+        drainer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(Log::flush, "log-final-flush"));
+    }
+
+    private Log() {
+    }
+
+    static Site site(String name) {
+        return new Site(name);
+    }
+
+    // Events lost to a full ring since startup
+    static long dropped() {
+        return dropped.sum();
+    }
+
+    // ========== CALL SITES ==========
+    static final class Site {
+        private final String name;
+        private volatile Level level = DEFAULT_LEVEL;
+        private volatile int sampleOneIn = 1;
+        private volatile int perSecond = Integer.MAX_VALUE;
+
+        // Rate limit window: ~1s (2^30 ns) buckets of System.nanoTime()
+        private volatile long window;
+        private final AtomicInteger inWindow = new AtomicInteger();
+        private final AtomicInteger suppressed = new AtomicInteger();
+
+        private Site(String name) {
+            this.name = name;
+        }
+
+        Site level(Level level) {
+            this.level = level;
+            return this;
+        }
+
+        // Keep a random 1 in n events
+        Site sample(int n) {
+            this.sampleOneIn = Math.max(1, n);
+            return this;
+        }
+
+        // At most n events per second; the rest are counted and reported on the next line
+        Site rateLimit(int n) {
+            this.perSecond = Math.max(1, n);
+            return this;
+        }
+
+        boolean isEnabled(Level level) {
+            return level.compareTo(this.level) >= 0;
+        }
+
+        void debug(String message) { log(Level.DEBUG, message, 0, null, null, null); }
+        void debug(String message, Object a) { log(Level.DEBUG, message, 1, a, null, null); }
+        void debug(String message, Object a, Object b) { log(Level.DEBUG, message, 2, a, b, null); }
+        void debug(String message, Object a, Object b, Object c) { log(Level.DEBUG, message, 3, a, b, c); }
+
+        void info(String message) { log(Level.INFO, message, 0, null, null, null); }
+        void info(String message, Object a) { log(Level.INFO, message, 1, a, null, null); }
+        void info(String message, Object a, Object b) { log(Level.INFO, message, 2, a, b, null); }
+        void info(String message, Object a, Object b, Object c) { log(Level.INFO, message, 3, a, b, c); }
+
+        void warn(String message) { log(Level.WARN, message, 0, null, null, null); }
+        void warn(String message, Object a) { log(Level.WARN, message, 1, a, null, null); }
+        void warn(String message, Object a, Object b) { log(Level.WARN, message, 2, a, b, null); }
+        void warn(String message, Object a, Object b, Object c) { log(Level.WARN, message, 3, a, b, c); }
+
+        void error(String message) { log(Level.ERROR, message, 0, null, null, null); }
+        void error(String message, Object a) { log(Level.ERROR, message, 1, a, null, null); }
+        void error(String message, Object a, Object b) { log(Level.ERROR, message, 2, a, b, null); }
+        void error(String message, Object a, Object b, Object c) { log(Level.ERROR, message, 3, a, b, c); }
+
+        private void log(Level level, String message, int argCount, Object a, Object b, Object c) {
+            if (!isEnabled(level)) return;
+            if (sampleOneIn > 1 && ThreadLocalRandom.current().nextInt(sampleOneIn) != 0) return;
+            int skipped = 0;
+            if (perSecond != Integer.MAX_VALUE) {
+                long now = System.nanoTime() >>> 30;
+                if (now != window) {
+                    window = now;
+                    inWindow.set(0);
+                }
+                if (inWindow.incrementAndGet() > perSecond) {
+                    suppressed.incrementAndGet();
+                    return;
+                }
+                skipped = suppressed.getAndSet(0);
+            }
+            publish(this, level, message, argCount, a, b, c, skipped);
+        }
+    }
+    // ================================
+
+    // ========== RING ==========
+    private static void publish(Site site, Level level, String message, int argCount,
+                                Object a, Object b, Object c, int suppressed) {
+        long sequence;
+        do {
+            sequence = head.get();
+            if (sequence - tail >= CAPACITY) {
+                dropped.increment();
+                return;
+            }
+        } while (!head.compareAndSet(sequence, sequence + 1));
+
+        int index = (int) (sequence & MASK);
+        Event event = ring[index];
+        event.millis = System.currentTimeMillis();
+        event.level = level;
+        event.site = site;
+        event.thread = Thread.currentThread().getName();
+        event.message = message;
+        event.argCount = argCount;
+        event.args[0] = a;
+        event.args[1] = b;
+        event.args[2] = c;
+        event.suppressed = suppressed;
+        published.lazySet(index, sequence); // release: the fields above are visible first
+    }
+
+    private static void drainLoop() {
+        StringBuilder line = new StringBuilder(256);
+        while (true) {
+            if (drain(line) == 0) LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+    }
+
+    // Writes every complete event in order; returns how many were written
+    private static synchronized int drain(StringBuilder line) {
+        PrintStream out = System.out;
+        long sequence = tail;
+        int written = 0;
+        long lastDropped = dropped.sum();
+        while (true) {
+            int index = (int) (sequence & MASK);
+            if (published.get(index) != sequence) break;
+            Event event = ring[index];
+            line.setLength(0);
+            format(event, line);
+            out.println(line);
+            event.site = null;
+            event.message = null;
+            event.thread = null;
+            event.args[0] = event.args[1] = event.args[2] = null;
+            tail = ++sequence; // frees the slot for producers
+            written++;
+        }
+        if (written > 0) {
+            if (lastDropped > reportedDropped) {
+                out.println("⚠️ log ring full, " + (lastDropped - reportedDropped) + " events dropped");
+                reportedDropped = lastDropped;
+            }
+            out.flush();
+        }
+        return written;
+    }
+
+    // Blocks until everything published so far is written (or a second passes)
+    static void flush() {
+        long target = head.get();
+        long deadline = System.nanoTime() + 1_000_000_000L;
+        StringBuilder line = new StringBuilder(256);
+        while (tail < target && System.nanoTime() < deadline) {
+            if (drain(line) == 0) Thread.onSpinWait();
+        }
+    }
+    // ==========================
+
+    // ========== FORMATTING ==========
+    // 2026-10-18T23:56:48.123Z INFO  [search] (thread) message with {} filled in
+    private static void format(Event event, StringBuilder line) {
+        line.append(Instant.ofEpochMilli(event.millis)).append(' ')
+                .append(event.level.name()).append(event.level.name().length() == 4 ? "  " : " ")
+                .append('[').append(event.site.name).append("] (").append(event.thread).append(") ");
+        String message = event.message;
+        int arg = 0;
+        int from = 0;
+        int at;
+        while (arg < event.argCount && (at = message.indexOf("{}", from)) >= 0) {
+            line.append(message, from, at).append(formatArg(event.args[arg++]));
+            from = at + 2;
+        }
+        line.append(message, from, message.length());
+        if (event.suppressed > 0) line.append(" (+").append(event.suppressed).append(" suppressed)");
+    }
+
+    private static String formatArg(Object arg) {
+        if (arg instanceof Double || arg instanceof Float) {
+            return String.format(Locale.ROOT, "%.2f", ((Number) arg).doubleValue());
+        }
+        return String.valueOf(arg);
+    }
+
+    private static Level parseLevel(String name) {
+        if (name == null || name.isBlank()) return Level.INFO;
+        try {
+            return Level.valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("⚠️ Unknown LOG_LEVEL " + name + ", using INFO");
+            return Level.INFO;
+        }
+    }
+    // ================================
+}
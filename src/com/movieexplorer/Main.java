@@ -6,97 +6,98 @@ import com.sun.net.httpserver.HttpExchange;
 
 import java.io.*;
 import java.net.InetSocketAddress;
-import java.net.URI;
 import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ConcurrentHashMap;
-
-// ========== ADD: JSON Library SIMULATION ==========
-class JsonUtil {
-    public static String toJson(Object obj) {
-        if (obj instanceof Map) {
-            return mapToJson((Map<?, ?>) obj);
-        } else if (obj instanceof List) {
-            return listToJson((List<?>) obj);
-        } else if (obj instanceof String) {
-            return "\"" + escapeJson((String) obj) + "\"";
-        } else if (obj instanceof Number || obj instanceof Boolean) {
-            return obj.toString();
-        } else if (obj == null) {
-            return "null";
-        }
-        return "\"" + escapeJson(obj.toString()) + "\"";
-    }
-
-    private static String mapToJson(Map<?, ?> map) {
-        StringBuilder json = new StringBuilder("{");
-        int i = 0;
-        for (Map.Entry<?, ?> entry : map.entrySet()) {
-            json.append("\"").append(entry.getKey()).append("\":")
-                    .append(toJson(entry.getValue()));
-            if (++i < map.size()) json.append(",");
-        }
-        json.append("}");
-        return json.toString();
-    }
-
-    private static String listToJson(List<?> list) {
-        StringBuilder json = new StringBuilder("[");
-        for (int i = 0; i < list.size(); i++) {
-            json.append(toJson(list.get(i)));
-            if (i < list.size() - 1) json.append(",");
-        }
-        json.append("]");
-        return json.toString();
-    }
-
-    private static String escapeJson(String input) {
-        if (input == null) return "";
-        return input.replace("\\", "\\\\")
-                .replace("\"", "\\\"")
-                .replace("\n", "\\n")
-                .replace("\r", "\\r")
-                .replace("\t", "\\t");
-    }
-}
-// ==================================================
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 
 public class Main {
     // ========== ENHANCED: Data Structures ==========
     private static Trie movieTrie = new Trie();
     private static List<Movie> allMovies = new ArrayList<>();
     private static Map<Integer, Movie> movieCache = new ConcurrentHashMap<>();
+    // Rating-ordered index for keyset paging of /api/movies/popular
+    private static final Comparator<Movie> POPULAR_ORDER = Comparator
+            .comparingDouble(Movie::getRating).reversed()
+            .thenComparingInt(Movie::getId);
+    private static NavigableSet<Movie> popularMovies = new ConcurrentSkipListSet<>(POPULAR_ORDER);
+    // Change-feed patches take the write side, readers of the trie, allMovies and
+    // popularMovies the read side, so a sync batch is seen all at once or not at all
+    private static final ReentrantReadWriteLock catalogLock = new ReentrantReadWriteLock();
+    private static final Set<Integer> tmdbMovieIds = ConcurrentHashMap.newKeySet();
     private static HttpClient httpClient = HttpClient.newHttpClient();
-    private static final String TMDB_API_KEY = "b93aab0bde990c6b33cff962d2b23284"; // REPLACE WITH YOUR KEY
-    private static final String TMDB_BASE_URL = "https://api.themoviedb.org/3";
+    private static volatile TmdbChangeSync tmdbSync;
+    private static ImageProxyCache imageCache;
+    // Movie image URLs point here. Relative by default, so they resolve against whatever
+    // host and scheme served the API; set an absolute IMAGE_BASE_URL when the frontend
+    // lives on another origin. IMAGE_ORIGIN_URL can point at the TmdbStub in bench/
+    // (./bench.sh TmdbStub) for local testing
+    private static final String IMAGE_BASE_URL = envOrDefault("IMAGE_BASE_URL", "/img");
+    private static final String IMAGE_ORIGIN_URL = envOrDefault("IMAGE_ORIGIN_URL", "https://image.tmdb.org/t/p");
+    private static final String IMAGE_PLACEHOLDER_FILE = "placeholder.svg";
+    private static final byte[] IMAGE_PLACEHOLDER = ("<svg xmlns=\"http://www.w3.org/2000/svg\" viewBox=\"0 0 500 750\">" +
+            "<rect width=\"500\" height=\"750\" fill=\"#1f1f2e\"/>" +
+            "<text x=\"250\" y=\"385\" fill=\"#8a8aa3\" font-family=\"sans-serif\" font-size=\"36\" " +
+            "text-anchor=\"middle\">No Poster</text></svg>").getBytes(StandardCharsets.UTF_8);
+    // TMDb settings; TMDB_BASE_URL can point at the TmdbStub in bench/ (./bench.sh TmdbStub)
+    private static final String TMDB_PLACEHOLDER_KEY = "b93aab0bde990c6b33cff962d2b23284";
+    private static final String TMDB_API_KEY = envOrDefault("TMDB_API_KEY", TMDB_PLACEHOLDER_KEY);
+    private static final String TMDB_BASE_URL = envOrDefault("TMDB_BASE_URL", "https://api.themoviedb.org/3");
+    private static final int TMDB_PAGES = Integer.parseInt(envOrDefault("TMDB_PAGES", "25"));
+    private static final int TMDB_PARALLELISM = 4;
+    private static final long TMDB_SYNC_MINUTES = Long.parseLong(envOrDefault("TMDB_SYNC_MINUTES", "15"));
+    // Deadline, circuit breaker and hedging for every TMDb call; searches and background
+    // work (catalog paging, sync, enrichment) each get their own breaker
+    private static final TmdbClient tmdbClient = new TmdbClient("interactive", httpClient, TMDB_BASE_URL,
+            TMDB_API_KEY, 3_000);
+    private static final TmdbClient tmdbBackgroundClient = new TmdbClient("background", httpClient, TMDB_BASE_URL,
+            TMDB_API_KEY, 10_000);
+    private static final int TMDB_FALLBACK_RESULTS = 20;
+    // Owns all TMDb API traffic: one quota, searches ahead of background work
+    private static final TmdbScheduler tmdbScheduler = new TmdbScheduler(tmdbClient, tmdbBackgroundClient,
+            Double.parseDouble(envOrDefault("TMDB_RATE_PER_SECOND", "40")), 40, 3_000);
+    // Upstream search cache: 10 min fresh, 2 min for empty results, then 1 h stale-while-revalidate
+    private static final TmdbResponseCache tmdbSearchCache = new TmdbResponseCache(Main::fetchTmdbSearch,
+            10 * 60_000L, 2 * 60_000L, 60 * 60_000L, 10_000);
+    // Per-request logs go through the async logger; autocomplete fires on every keystroke
+    private static final Log.Site SEARCH_LOG = Log.site("search").rateLimit(50);
+    private static final Log.Site AUTOCOMPLETE_LOG = Log.site("autocomplete").sample(10).rateLimit(20);
     // ===============================================
 
     public static void main(String[] args) throws Exception {
         System.out.println("🎬 Starting Movie Explorer Backend...");
         System.out.println("⚙️ Loading configuration...");
 
+        // Image proxy; must be set before any Movie is built
+        imageCache = new ImageProxyCache(httpClient, IMAGE_ORIGIN_URL,
+                java.nio.file.Paths.get(envOrDefault("IMAGE_CACHE_DIR", "data/images")),
+                Long.parseLong(envOrDefault("IMAGE_CACHE_MB", "512")) << 20);
+        Movie.setImageProxy(IMAGE_BASE_URL);
+
         // Initialize movies
         initializeMovies();
         System.out.println("📊 Trie loaded with " + movieTrie.getMovieCount() + " movies");
-        System.out.println("🌐 TMDb API: " + (TMDB_API_KEY.equals("b93aab0bde990c6b33cff962d2b23284") ? "DISABLED (set your API key)" : "ENABLED"));
+        System.out.println("🌐 TMDb API: " + (tmdbEnabled() ? "ENABLED (" + TMDB_BASE_URL + ")" : "DISABLED (set TMDB_API_KEY)"));
 
         // Create HTTP server
         HttpServer server = HttpServer.create(new InetSocketAddress(8080), 0);
 
         // ========== ENHANCED: More Endpoints ==========
-        server.createContext("/api/hello", new HelloHandler());
-        server.createContext("/api/health", new HealthHandler());
-        server.createContext("/api/movies", new MoviesHandler());
-        server.createContext("/api/movies/", new MovieDetailsHandler()); // Single movie
-        server.createContext("/api/movies/popular", new PopularMoviesHandler());
-        server.createContext("/api/search", new SearchHandler());
-        server.createContext("/api/suggestions", new AutocompleteHandler());
-        server.createContext("/api/trie/stats", new TrieStatsHandler());
-        server.createContext("/api/tmdb/search", new TMDbSearchHandler()); // Direct TMDb search
+        route(server, "/api/hello", new HelloHandler());
+        route(server, "/api/health", new HealthHandler());
+        route(server, "/api/movies", new MoviesHandler());
+        route(server, "/api/movies/", new MovieDetailsHandler()); // Single movie
+        route(server, "/api/movies/popular", new PopularMoviesHandler());
+        route(server, "/api/search", new SearchHandler());
+        route(server, "/api/suggestions", new AutocompleteHandler());
+        route(server, "/api/trie/stats", new TrieStatsHandler());
+        route(server, "/api/tmdb/search", new TMDbSearchHandler()); // Direct TMDb search
+        route(server, "/img/", new ImageHandler()); // Cached TMDb images
+        route(server, "/api/metrics", Metrics.REGISTRY.handler()); // Prometheus scrape
         // ==============================================
 
         server.setExecutor(Executors.newCachedThreadPool());
@@ -113,6 +114,8 @@ public class Main {
         System.out.println("  GET  /api/suggestions?q=p - Autocomplete suggestions");
         System.out.println("  GET  /api/trie/stats      - Trie statistics");
         System.out.println("  GET  /api/tmdb/search     - Direct TMDb search");
+        System.out.println("  GET  /img/{size}/{file}   - Cached poster/backdrop images");
+        System.out.println("  GET  /api/metrics         - Per-route, TMDb and JVM metrics (Prometheus)");
         System.out.println("\n🔍 Example usage:");
         System.out.println("  http://localhost:8080/api/search?q=inception");
         System.out.println("  http://localhost:8080/api/movies/1");
@@ -179,46 +182,141 @@ public class Main {
         for (Movie movie : movies) {
             allMovies.add(movie);
             movieCache.put(movie.getId(), movie);
+            popularMovies.add(movie);
             movieTrie.insert(movie.getTitle().toLowerCase(), movie);
         }
 
+        // Bulk-load a catalog dump if one is configured
+        String catalogFile = System.getenv("MOVIE_CATALOG_FILE");
+        if (catalogFile != null && !catalogFile.isEmpty()) {
+            try {
+                new CatalogImporter(java.nio.file.Paths.get(catalogFile), 1000, 10_000,
+                        Runtime.getRuntime().availableProcessors())
+                        .run(null, movie -> {
+                            allMovies.add(movie);
+                            movieCache.put(movie.getId(), movie);
+                            popularMovies.add(movie);
+                            movieTrie.insert(movie.getTitle().toLowerCase(), movie);
+                        });
+            } catch (Exception e) {
+                System.out.println("⚠️ Failed to import " + catalogFile + ": " + e.getMessage());
+            }
+        }
+
         // Try to load more movies from TMDb if API key is set
-        if (!TMDB_API_KEY.equals("b93aab0bde990c6b33cff962d2b23284")) {
+        if (tmdbEnabled()) {
             loadMoviesFromTMDb();
         }
     }
 
     private static Movie createMovie(int id, String title, int year, double rating,
                                      String posterPath, List<String> genres, String description) {
-        String poster = "https://image.tmdb.org/t/p/w500" + posterPath;
-        String backdrop = "https://image.tmdb.org/t/p/w1280" + posterPath;
+        String poster = Movie.imageUrl("w500", posterPath);
+        String backdrop = Movie.imageUrl("w1280", posterPath);
         return new Movie(id, title, year, rating, poster, backdrop, genres, description, "en", 120);
     }
 
+    // Blocking: the catalog is complete before the server starts taking requests
     private static void loadMoviesFromTMDb() {
-        System.out.println("🔄 Loading movies from TMDb...");
+        System.out.println("🔄 Loading movies from TMDb (" + TMDB_PAGES + " pages)...");
+        long loadStart = System.currentTimeMillis();
         try {
-            // This is a simplified version - you'd want to implement proper pagination
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(TMDB_BASE_URL + "/movie/popular?api_key=" + TMDB_API_KEY + "&page=1"))
-                    .header("Accept", "application/json")
-                    .build();
-
-            httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                    .thenApply(HttpResponse::body)
-                    .thenAccept(response -> {
-                        try {
-                            // Parse TMDb response and add to Trie
-                            // This is simplified - you'd need proper JSON parsing
-                            System.out.println("✅ Loaded additional movies from TMDb");
-                        } catch (Exception e) {
-                            System.out.println("⚠️ Failed to load TMDb movies: " + e.getMessage());
-                        }
-                    });
+            List<Movie> loaded = new TmdbCatalogLoader(tmdbScheduler, TMDB_PAGES, TMDB_PARALLELISM).load();
+
+            int added = 0;
+            for (Movie movie : loaded) {
+                if (movieCache.putIfAbsent(movie.getId(), movie) != null) continue; // keep local entries
+                allMovies.add(movie);
+                popularMovies.add(movie);
+                movieTrie.insert(movie.getTitle().toLowerCase(), movie);
+                tmdbMovieIds.add(movie.getId());
+                added++;
+            }
+            System.out.println("✅ Added " + added + " movies from TMDb");
+
+            tmdbSync = new TmdbChangeSync(tmdbScheduler, tmdbCatalog(), loadStart);
+            if (TMDB_SYNC_MINUTES > 0) {
+                tmdbSync.start(TMDB_SYNC_MINUTES * 60);
+                System.out.println("🔄 TMDb change sync every " + TMDB_SYNC_MINUTES + " min");
+            }
+            // Listing results lack runtime and full genres; fetch details in the background
+            if (Boolean.parseBoolean(envOrDefault("TMDB_ENRICH", "true"))) {
+                List<Integer> partial = new ArrayList<>();
+                for (Movie movie : loaded) {
+                    if (tmdbMovieIds.contains(movie.getId()) && movie.getRuntime() == 0) partial.add(movie.getId());
+                }
+                tmdbSync.enrich(partial);
+            }
         } catch (Exception e) {
             System.out.println("⚠️ TMDb API error: " + e.getMessage());
         }
     }
+
+    // The TMDb-sourced part of the catalog; local sample and imported movies are never patched
+    private static TmdbChangeSync.Catalog tmdbCatalog() {
+        return new TmdbChangeSync.Catalog() {
+            @Override
+            public Movie get(int id) {
+                return tmdbMovieIds.contains(id) ? movieCache.get(id) : null;
+            }
+
+            @Override
+            public void apply(Map<Integer, Movie> updated, Set<Integer> removed) {
+                applyCatalogChanges(updated, removed);
+            }
+        };
+    }
+
+    // Replaces and removes movies in every index under the write lock
+    private static void applyCatalogChanges(Map<Integer, Movie> updated, Set<Integer> removed) {
+        catalogLock.writeLock().lock();
+        try {
+            for (Movie movie : updated.values()) {
+                Movie old = movieCache.get(movie.getId());
+                if (old == null) continue;
+                // Remove before insert: the old entry's title and rating locate it
+                movieTrie.remove(old.getTitle(), old.getId());
+                movieTrie.insert(movie.getTitle().toLowerCase(), movie);
+                popularMovies.remove(old);
+                popularMovies.add(movie);
+                movieCache.put(movie.getId(), movie);
+            }
+            for (int id : removed) {
+                Movie old = movieCache.remove(id);
+                if (old == null) continue;
+                movieTrie.remove(old.getTitle(), id);
+                popularMovies.remove(old);
+                tmdbMovieIds.remove(id);
+            }
+            allMovies.replaceAll(movie -> updated.getOrDefault(movie.getId(), movie));
+            allMovies.removeIf(movie -> removed.contains(movie.getId()));
+        } finally {
+            catalogLock.writeLock().unlock();
+        }
+    }
+
+    private static <T> T readCatalog(Supplier<T> read) {
+        catalogLock.readLock().lock();
+        try {
+            return read.get();
+        } finally {
+            catalogLock.readLock().unlock();
+        }
+    }
+
+    // Every context gets request counts and latency in /api/metrics
+    private static void route(HttpServer server, String path, HttpHandler handler) {
+        server.createContext(path, Metrics.REGISTRY.instrument("main", path, handler));
+    }
+
+    private static boolean tmdbEnabled() {
+        return !TMDB_API_KEY.equals(TMDB_PLACEHOLDER_KEY);
+    }
+
+    private static String envOrDefault(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isEmpty() ? defaultValue : value;
+    }
     // ==================================================
 
     // ========== ENHANCED: Handler Classes ==========
@@ -241,11 +339,17 @@ public class Main {
             Map<String, Object> response = new HashMap<>();
             response.put("status", "healthy");
             response.put("service", "Movie Explorer Backend");
-            response.put("uptime", System.currentTimeMillis());
+            response.put("uptime", Metrics.uptimeMillis());
             response.put("movies_in_trie", movieTrie.getMovieCount());
             response.put("total_movies_cached", allMovies.size());
             response.put("memory_usage", Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory());
             response.put("java_version", System.getProperty("java.version"));
+            response.put("tmdb_search_cache", tmdbSearchCache.stats());
+            response.put("tmdb_client", tmdbClient.stats());
+            response.put("tmdb_background_client", tmdbBackgroundClient.stats());
+            response.put("tmdb_scheduler", tmdbScheduler.stats());
+            if (tmdbSync != null) response.put("tmdb_sync", tmdbSync.stats());
+            response.put("image_cache", imageCache.stats());
             sendJsonResponse(exchange, response, 200);
         }
     }
@@ -253,10 +357,14 @@ public class Main {
     static class MoviesHandler implements HttpHandler {
         @Override
         public void handle(HttpExchange exchange) throws IOException {
+            int fields = movieFields(exchange, parseQueryParams(exchange.getRequestURI().getQuery()));
+            if (fields < 0) return;
+
             Map<String, Object> response = new HashMap<>();
-            response.put("count", allMovies.size());
-            response.put("movies", allMovies);
-            sendJsonResponse(exchange, response, 200);
+            List<Movie> movies = readCatalog(() -> new ArrayList<>(allMovies));
+            response.put("count", movies.size());
+            response.put("movies", movies);
+            sendMovieResponse(exchange, response, 200, fields);
         }
     }
 
@@ -271,6 +379,9 @@ public class Main {
                 return;
             }
 
+            int fields = movieFields(exchange, parseQueryParams(exchange.getRequestURI().getQuery()));
+            if (fields < 0) return;
+
             try {
                 int movieId = Integer.parseInt(parts[3]);
                 Movie movie = movieCache.get(movieId);
@@ -280,7 +391,7 @@ public class Main {
                     return;
                 }
 
-                sendJsonResponse(exchange, movie, 200);
+                sendMovieResponse(exchange, movie, 200, fields);
             } catch (NumberFormatException e) {
                 sendError(exchange, "Invalid movie ID format", 400);
             }
@@ -290,24 +401,20 @@ public class Main {
     static class PopularMoviesHandler implements HttpHandler {
         @Override
         public void handle(HttpExchange exchange) throws IOException {
-            // Get query parameters for pagination
             Map<String, String> params = parseQueryParams(exchange.getRequestURI().getQuery());
-            int page = Integer.parseInt(params.getOrDefault("page", "1"));
-            int limit = Integer.parseInt(params.getOrDefault("limit", "10"));
-
-            // Simple pagination
-            int start = (page - 1) * limit;
-            int end = Math.min(start + limit, allMovies.size());
+            int limit = PageCursor.pageSize(params.get("limit"), 10);
+            int fields = movieFields(exchange, params);
+            if (fields < 0) return;
 
-            List<Movie> pageMovies = allMovies.subList(start, end);
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("page", page);
-            response.put("total_pages", (int) Math.ceil((double) allMovies.size() / limit));
-            response.put("total_results", allMovies.size());
-            response.put("results", pageMovies);
+            Map<String, Object> response;
+            try {
+                response = readCatalog(() -> popularPage(params.get("cursor"), limit));
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, "Invalid cursor", 400);
+                return;
+            }
 
-            sendJsonResponse(exchange, response, 200);
+            sendMovieResponse(exchange, response, 200, fields);
         }
     }
 
@@ -316,29 +423,24 @@ public class Main {
         public void handle(HttpExchange exchange) throws IOException {
             Map<String, String> params = parseQueryParams(exchange.getRequestURI().getQuery());
             String query = params.getOrDefault("q", "").trim().toLowerCase();
+            int limit = PageCursor.pageSize(params.get("limit"), 20);
+            int fields = movieFields(exchange, params);
+            if (fields < 0) return;
 
-            List<Movie> results;
-            if (query.isEmpty()) {
-                results = allMovies;
-            } else {
-                results = movieTrie.search(query);
-                System.out.println("🔍 Trie search: \"" + query + "\" → " + results.size() + " results");
+            Map<String, Object> response;
+            try {
+                if (query.isEmpty()) {
+                    response = readCatalog(() -> popularPage(params.get("cursor"), limit));
+                } else {
+                    response = readCatalog(() -> searchPage(query, params.get("cursor"), limit));
+                }
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, "Invalid cursor", 400);
+                return;
             }
-
-            // Pagination
-            int page = Integer.parseInt(params.getOrDefault("page", "1"));
-            int limit = Integer.parseInt(params.getOrDefault("limit", "20"));
-            int start = (page - 1) * limit;
-            int end = Math.min(start + limit, results.size());
-
-            Map<String, Object> response = new HashMap<>();
             response.put("query", query);
-            response.put("page", page);
-            response.put("total_pages", (int) Math.ceil((double) results.size() / limit));
-            response.put("total_results", results.size());
-            response.put("results", results.subList(start, end));
 
-            sendJsonResponse(exchange, response, 200);
+            sendMovieResponse(exchange, response, 200, fields);
         }
     }
 
@@ -352,8 +454,8 @@ public class Main {
             if (prefix.length() < 2) {
                 suggestions = Collections.emptyList();
             } else {
-                suggestions = movieTrie.autocomplete(prefix);
-                System.out.println("💡 Autocomplete: \"" + prefix + "\" → " + suggestions.size() + " suggestions");
+                suggestions = readCatalog(() -> movieTrie.autocomplete(prefix));
+                AUTOCOMPLETE_LOG.info("💡 Autocomplete: \"{}\" → {} suggestions", prefix, suggestions.size());
             }
 
             Map<String, Object> response = new HashMap<>();
@@ -387,8 +489,8 @@ public class Main {
     static class TMDbSearchHandler implements HttpHandler {
         @Override
         public void handle(HttpExchange exchange) throws IOException {
-            if (TMDB_API_KEY.equals("b93aab0bde990c6b33cff962d2b23284")) {
-                sendError(exchange, "TMDb API key not configured. Please set your API key in Main.java", 501);
+            if (!tmdbEnabled()) {
+                sendError(exchange, "TMDb API key not configured. Please set TMDB_API_KEY", 501);
                 return;
             }
 
@@ -400,37 +502,222 @@ public class Main {
                 return;
             }
 
-            try {
-                // Direct TMDb API call
-                HttpRequest request = HttpRequest.newBuilder()
-                        .uri(URI.create(TMDB_BASE_URL + "/search/movie?api_key=" + TMDB_API_KEY +
-                                "&query=" + java.net.URLEncoder.encode(query, "UTF-8") + "&page=1"))
-                        .header("Accept", "application/json")
-                        .build();
+            // Completes on the HttpClient thread; concurrent identical queries share one upstream call
+            Runnable recorded = Metrics.deferRecording(exchange);
+            tmdbSearchCache.get(query).whenComplete((response, error) -> {
+                try {
+                    if (error != null) {
+                        sendLocalFallback(exchange, query, error);
+                        return;
+                    }
+                    exchange.getResponseHeaders().set("Content-Type", "application/json");
+                    exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
+                    exchange.sendResponseHeaders(response.status, response.body.length);
+                    try (OutputStream os = exchange.getResponseBody()) {
+                        os.write(response.body);
+                    }
+                } catch (IOException e) {
+                    exchange.close();
+                } finally {
+                    recorded.run();
+                }
+            });
+        }
+    }
+
+    static class ImageHandler implements HttpHandler {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            String[] parts = exchange.getRequestURI().getPath().split("/"); // "", "img", size, file
+            if (parts.length != 4) {
+                sendError(exchange, "Expected /img/{size}/{file}", 404);
+                return;
+            }
+            String size = parts[2];
+            String file = parts[3];
 
-                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (file.equals(IMAGE_PLACEHOLDER_FILE)) {
+                sendImageBytes(exchange, IMAGE_PLACEHOLDER, "image/svg+xml", "public, max-age=86400");
+                return;
+            }
+            if (!ImageProxyCache.isValid(size, file)) {
+                sendError(exchange, "Unknown image size or file name", 404);
+                return;
+            }
+
+            // Image paths are immutable, so the path itself is a strong validator
+            String etag = "\"" + size + "/" + file + "\"";
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.getResponseHeaders().set("ETag", etag);
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            serveImage(exchange, size, file, etag, true, Metrics.deferRecording(exchange));
+        }
+    }
 
-                exchange.getResponseHeaders().set("Content-Type", "application/json");
-                exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
-                exchange.sendResponseHeaders(200, response.body().getBytes().length);
+    // Answers from a cache callback; `recorded` runs once the response is out
+    private static void serveImage(HttpExchange exchange, String size, String file, String etag, boolean retry,
+                                   Runnable recorded) {
+        imageCache.get(size, file).whenComplete((path, error) -> {
+            boolean retrying = false;
+            try {
+                if (error != null) {
+                    if (error instanceof ImageProxyCache.NotFoundException) {
+                        sendImageBytes(exchange, IMAGE_PLACEHOLDER, "image/svg+xml", "public, max-age=300");
+                    } else {
+                        sendError(exchange, "Image origin error: " + error.getMessage(), 502);
+                    }
+                    return;
+                }
 
-                try (OutputStream os = exchange.getResponseBody()) {
-                    os.write(response.body().getBytes());
+                java.nio.channels.FileChannel channel;
+                try {
+                    channel = java.nio.channels.FileChannel.open(path);
+                } catch (java.nio.file.NoSuchFileException e) {
+                    // Evicted between lookup and open: fetch it again, once
+                    imageCache.invalidate(size, file);
+                    if (retry) {
+                        retrying = true;
+                        serveImage(exchange, size, file, etag, false, recorded);
+                    } else {
+                        sendError(exchange, "Image unavailable", 503);
+                    }
+                    return;
                 }
-            } catch (Exception e) {
-                sendError(exchange, "TMDb API error: " + e.getMessage(), 500);
+
+                try (channel) {
+                    long length = channel.size();
+                    exchange.getResponseHeaders().set("Content-Type", ImageProxyCache.contentType(file));
+                    exchange.getResponseHeaders().set("Cache-Control", "public, max-age=31536000, immutable");
+                    exchange.getResponseHeaders().set("ETag", etag);
+                    exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
+                    exchange.sendResponseHeaders(200, length);
+                    try (OutputStream os = exchange.getResponseBody()) {
+                        java.nio.channels.WritableByteChannel out = java.nio.channels.Channels.newChannel(os);
+                        for (long sent = 0; sent < length; ) {
+                            sent += channel.transferTo(sent, length - sent, out);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                exchange.close();
+            } finally {
+                if (!retrying) recorded.run();
             }
+        });
+    }
+
+    private static void sendImageBytes(HttpExchange exchange, byte[] bytes, String contentType,
+                                       String cacheControl) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.getResponseHeaders().set("Cache-Control", cacheControl);
+        exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
         }
     }
+
+    private static java.util.concurrent.CompletableFuture<TmdbResponseCache.Response> fetchTmdbSearch(String query) {
+        return tmdbScheduler.submit(TmdbScheduler.Lane.INTERACTIVE,
+                "/search/movie?query=" + java.net.URLEncoder.encode(query, StandardCharsets.UTF_8) + "&page=1");
+    }
+
+    // TMDb is down, slow or short-circuited and nothing usable is cached: answer from
+    // the local trie in the same page shape, flagged so clients can tell
+    private static void sendLocalFallback(HttpExchange exchange, String query, Throwable error) throws IOException {
+        Throwable cause = error instanceof java.util.concurrent.CompletionException && error.getCause() != null
+                ? error.getCause() : error;
+        List<Movie> results = readCatalog(() -> movieTrie.search(query.toLowerCase(), TMDB_FALLBACK_RESULTS));
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("page", 1);
+        response.put("results", results);
+        response.put("total_results", results.size());
+        response.put("total_pages", 1);
+        response.put("source", "local");
+        response.put("fallback_reason", cause instanceof TmdbClient.CircuitOpenException ? "circuit_open"
+                : cause instanceof java.util.concurrent.TimeoutException ? "timeout" : "upstream_error");
+        sendJsonResponse(exchange, response, 200);
+    }
     // ============================================
 
+    // ========== Keyset Pagination ==========
+    // Cursor is (rating, id) of the last movie served; tailSet seeks straight to it
+    private static Map<String, Object> popularPage(String cursorToken, int limit) {
+        PageCursor cursor = PageCursor.decode(cursorToken, "p", 2);
+        NavigableSet<Movie> remaining = cursor == null
+                ? popularMovies
+                : popularMovies.tailSet(probe(cursor.getInt(1), "", 0, cursor.getDouble(0)), false);
+
+        List<Movie> pageMovies = new ArrayList<>(limit);
+        String nextCursor = null;
+        for (Movie movie : remaining) {
+            if (pageMovies.size() == limit) {
+                Movie last = pageMovies.get(limit - 1);
+                nextCursor = PageCursor.encode("p", last.getRating(), last.getId());
+                break;
+            }
+            pageMovies.add(movie);
+        }
+
+        return pageResponse(pageMovies, popularMovies.size(), limit, nextCursor);
+    }
+
+    // Cursor is the full relevance key (prefix match, rating, year, id) of the last
+    // movie served. The trie returns the limit + 1 matches after it (the extra one
+    // tells us another page exists) without ordering every match.
+    private static Map<String, Object> searchPage(String query, String cursorToken, int limit) {
+        PageCursor cursor = PageCursor.decode(cursorToken, "s", 4);
+        Movie after = null;
+        if (cursor != null) {
+            after = probe(cursor.getInt(3), "1".equals(cursor.get(0)) ? query : "",
+                    cursor.getInt(2), cursor.getDouble(1));
+        }
+        Trie.SearchPage results = movieTrie.searchAfter(query, after, limit + 1);
+        SEARCH_LOG.info("🔍 Trie search: \"{}\" → {} results", query, results.totalResults);
+
+        List<Movie> pageMovies = results.movies.subList(0, Math.min(limit, results.movies.size()));
+        String nextCursor = null;
+        if (results.movies.size() > limit) {
+            Movie last = pageMovies.get(pageMovies.size() - 1);
+            nextCursor = PageCursor.encode("s", last.getTitle().toLowerCase().startsWith(query) ? 1 : 0,
+                    last.getRating(), last.getYear(), last.getId());
+        }
+
+        return pageResponse(pageMovies, results.totalResults, limit, nextCursor);
+    }
+
+    // Stand-in carrying only the sort-key fields, used to seek within an ordered view
+    private static Movie probe(int id, String title, int year, double rating) {
+        return new Movie(id, title, year, rating, null, Collections.emptyList(), null);
+    }
+
+    private static Map<String, Object> pageResponse(List<Movie> pageMovies, int totalResults,
+                                                    int limit, String nextCursor) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("limit", limit);
+        response.put("total_results", totalResults);
+        response.put("results", pageMovies);
+        response.put("has_more", nextCursor != null);
+        response.put("next_cursor", nextCursor);
+        return response;
+    }
+    // =======================================
+
     // ========== ENHANCED: Helper Methods ==========
     private static void sendJsonResponse(HttpExchange exchange, Object data, int statusCode) throws IOException {
-        String response = JsonUtil.toJson(data);
+        sendJsonResponse(exchange, data, statusCode, MovieJsonWriter.ALL);
+    }
+
+    // Serialized into this thread's byte buffer (Movies via MovieJsonWriter, limited
+    // to movieFields) and written from there, so no intermediate String or byte[] is made
+    private static void sendJsonResponse(HttpExchange exchange, Object data, int statusCode,
+                                         int movieFields) throws IOException {
         exchange.getResponseHeaders().set("Content-Type", "application/json");
-        exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
-        exchange.getResponseHeaders().set("Access-Control-Allow-Methods", "GET, OPTIONS");
-        exchange.getResponseHeaders().set("Access-Control-Allow-Headers", "Content-Type");
+        setCorsHeaders(exchange);
 
         // Handle OPTIONS preflight requests
         if ("OPTIONS".equals(exchange.getRequestMethod())) {
@@ -438,10 +725,72 @@ public class Main {
             return;
         }
 
-        exchange.sendResponseHeaders(statusCode, response.getBytes(StandardCharsets.UTF_8).length);
+        JsonOutput response = JsonOutput.reuse().projectMovies(movieFields).writeValue(data);
+        exchange.sendResponseHeaders(statusCode, response.size());
+
+        try (OutputStream os = exchange.getResponseBody()) {
+            response.writeTo(os);
+        }
+    }
+
+    // Movie endpoints: CBOR (see MovieCborWriter) for clients whose Accept asks for
+    // application/cbor, JSON otherwise
+    private static void sendMovieResponse(HttpExchange exchange, Object data, int statusCode,
+                                          int movieFields) throws IOException {
+        exchange.getResponseHeaders().set("Vary", "Accept");
+        if ("OPTIONS".equals(exchange.getRequestMethod()) || !acceptsCbor(exchange.getRequestHeaders().get("Accept"))) {
+            sendJsonResponse(exchange, data, statusCode, movieFields);
+            return;
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", "application/cbor");
+        setCorsHeaders(exchange);
+        CborOutput response = CborOutput.reuse().projectMovies(movieFields).stringRefs().writeValue(data);
+        exchange.sendResponseHeaders(statusCode, response.size());
 
         try (OutputStream os = exchange.getResponseBody()) {
-            os.write(response.getBytes(StandardCharsets.UTF_8));
+            response.writeTo(os);
+        }
+    }
+
+    // True if an Accept header lists application/cbor without q=0
+    static boolean acceptsCbor(List<String> acceptHeaders) {
+        if (acceptHeaders == null) return false;
+        for (String header : acceptHeaders) {
+            for (String range : header.split(",")) {
+                String[] parts = range.split(";");
+                if (!parts[0].trim().equalsIgnoreCase("application/cbor")) continue;
+                boolean refused = false;
+                for (int i = 1; i < parts.length; i++) {
+                    String param = parts[i].trim();
+                    if (param.startsWith("q=")) {
+                        try {
+                            refused = Double.parseDouble(param.substring(2)) <= 0;
+                        } catch (NumberFormatException e) {
+                            refused = true;
+                        }
+                    }
+                }
+                if (!refused) return true;
+            }
+        }
+        return false;
+    }
+
+    private static void setCorsHeaders(HttpExchange exchange) {
+        exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
+        exchange.getResponseHeaders().set("Access-Control-Allow-Methods", "GET, OPTIONS");
+        exchange.getResponseHeaders().set("Access-Control-Allow-Headers", "Content-Type");
+    }
+
+    // ?fields= projection for movie responses (field names and the card/detail profiles);
+    // answers 400 and returns -1 if it names an unknown field
+    private static int movieFields(HttpExchange exchange, Map<String, String> params) throws IOException {
+        try {
+            return MovieJsonWriter.fields(params.get("fields"));
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, e.getMessage(), 400);
+            return -1;
         }
     }
 
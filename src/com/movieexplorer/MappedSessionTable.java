@@ -0,0 +1,526 @@
+package com.movieexplorer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.security.SecureRandom;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+// Session table that survives restarts (SESSION_MODE=mapped).
+//
+// <base>.tbl is a memory-mapped, fixed-slot, open-addressing hash table keyed by the
+// 128-bit token. Lookups probe the mapped bytes directly, guarded by a per-slot
+// seqlock, so there is nothing to load or deserialize at startup. Writers are
+// serialized by one lock and append every change to <base>.log before touching the
+// table. After a clean shutdown the table is used as-is; after a crash it is rebuilt
+// by replaying the log. Compaction rewrites both files from the live entries.
+//
+// Slot layout (64 bytes): seq(8) | tokenHi(8) | tokenLo(8) | expiresAt(8) | userId(4) | state(4)
+class MappedSessionTable implements SessionManager {
+    private static final int MAGIC = 0x4d455331; // "MES1"
+    private static final int HEADER_SIZE = 64;
+    private static final int SLOT_SIZE = 64;
+    private static final int OFF_SEQ = 0, OFF_HI = 8, OFF_LO = 16, OFF_EXPIRES = 24, OFF_USER = 32, OFF_STATE = 36;
+    private static final int EMPTY = 0, LIVE = 1, TOMBSTONE = 2;
+
+    private static final byte REC_PUT = 1, REC_REMOVE = 2;
+    private static final int RECORD_SIZE = 1 + 8 + 8 + 4 + 8 + 4;
+
+    private static final int MAX_PROBE = 32;
+    // Extending a session costs a log write, so refresh it at most once an hour
+    private static final long SLIDE_GRANULARITY_MS = 60 * 60 * 1000L;
+    private static final long COMPACT_INTERVAL_SECONDS = 600;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private final Path tablePath;
+    private final Path logPath;
+    private final long ttlMs;
+    private final int maxEntries;
+    private final int slotCount; // power of two, at least 2x maxEntries
+    private final SecureRandom random = new SecureRandom();
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile MappedByteBuffer table;
+    private FileChannel log;
+    private long logRecords;
+    private int live;
+    private int tombstones;
+
+    private final boolean recovered;
+    private final LongAdder compactions = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    MappedSessionTable(Path basePath, long ttlMs, int maxEntries) throws IOException {
+        this.tablePath = Paths.get(basePath + ".tbl");
+        this.logPath = Paths.get(basePath + ".log");
+        this.ttlMs = ttlMs;
+        this.maxEntries = maxEntries;
+        this.slotCount = Integer.highestOneBit(Math.max(maxEntries, 1024) * 2 - 1) << 1;
+        if (basePath.getParent() != null) Files.createDirectories(basePath.getParent());
+
+        boolean clean = Files.exists(tablePath) && isUsable(tablePath);
+        if (clean) {
+            table = map(tablePath);
+            countSlots();
+        } else {
+            // Crash or first start: rebuild from the log (empty if there is none)
+            table = createTable(tablePath);
+            replayLog();
+        }
+        this.recovered = !clean;
+
+        if (log == null) { // replayLog already reopened it
+            log = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            logRecords = log.size() / RECORD_SIZE;
+        }
+        setClean(false);
+
+        ScheduledExecutorService maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "session-table");
+            t.setDaemon(true);
+            return t;
+        });
+        maintenance.scheduleWithFixedDelay(this::flush, 1, 1, TimeUnit.SECONDS);
+        maintenance.scheduleWithFixedDelay(this::compactQuietly, COMPACT_INTERVAL_SECONDS, COMPACT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "session-table-close"));
+
+        System.out.println("✅ Session table " + tablePath + ": " + live + " sessions" +
+                (recovered ? " (rebuilt from log)" : ""));
+    }
+
+    static MappedSessionTable fromEnvironment(long ttlMs, int maxEntries) {
+        String base = System.getenv("SESSION_FILE");
+        try {
+            return new MappedSessionTable(Paths.get(base == null || base.isEmpty() ? "data/sessions" : base),
+                    ttlMs, maxEntries);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open session table", e);
+        }
+    }
+
+    // ========== SessionManager ==========
+    @Override
+    public String create(BackendServer.Session session) {
+        long hi = random.nextLong();
+        long lo = random.nextLong();
+        long expiresAt = System.currentTimeMillis() + ttlMs;
+
+        writeLock.lock();
+        try {
+            appendLog(REC_PUT, hi, lo, session.userId, expiresAt);
+            insert(table, hi, lo, session.userId, expiresAt);
+        } finally {
+            writeLock.unlock();
+        }
+        return String.format("%016x%016x", hi, lo);
+    }
+
+    @Override
+    public BackendServer.Session get(String token) {
+        long[] key = parseToken(token);
+        if (key == null) return null;
+
+        MappedByteBuffer buf = table;
+        int slot = find(buf, key[0], key[1]);
+        if (slot < 0) return null;
+
+        long[] row = new long[2]; // expiresAt, userId
+        if (!readSlot(buf, slot, key[0], key[1], row)) return null;
+
+        long now = System.currentTimeMillis();
+        if (row[0] <= now) return null; // compaction reclaims the slot
+
+        // Slide the TTL occasionally; never wait on the writer to do it
+        if (row[0] - now < ttlMs - SLIDE_GRANULARITY_MS && writeLock.tryLock()) {
+            try {
+                long expiresAt = now + ttlMs;
+                appendLog(REC_PUT, key[0], key[1], (int) row[1], expiresAt);
+                insert(table, key[0], key[1], (int) row[1], expiresAt);
+            } finally {
+                writeLock.unlock();
+            }
+        }
+        return new BackendServer.Session((int) row[1], null, null);
+    }
+
+    @Override
+    public void revoke(String token) {
+        long[] key = parseToken(token);
+        if (key == null) return;
+
+        writeLock.lock();
+        try {
+            int slot = find(table, key[0], key[1]);
+            if (slot < 0) return;
+            appendLog(REC_REMOVE, key[0], key[1], 0, 0);
+            remove(table, slot);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("mode", "mapped");
+        stats.put("live", live);
+        stats.put("slots", slotCount);
+        stats.put("tombstones", tombstones);
+        stats.put("logRecords", logRecords);
+        stats.put("compactions", compactions.sum());
+        stats.put("evictedTotal", evicted.sum());
+        stats.put("recoveredFromLog", recovered);
+        return stats;
+    }
+    // ====================================
+
+    // ========== SLOT ACCESS ==========
+    private static int slotOffset(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    private int home(long hi, long lo) {
+        // Tokens are random, so the low bits are already well mixed
+        return (int) ((lo ^ hi) & (slotCount - 1));
+    }
+
+    // Slot holding the token, or -1. Lock-free; slots are re-validated by readSlot
+    private int find(ByteBuffer buf, long hi, long lo) {
+        int slot = home(hi, lo);
+        for (int i = 0; i < slotCount; i++) {
+            int offset = slotOffset(slot);
+            int state = buf.getInt(offset + OFF_STATE);
+            if (state == EMPTY) return -1;
+            if (state == LIVE && buf.getLong(offset + OFF_HI) == hi && buf.getLong(offset + OFF_LO) == lo) {
+                return slot;
+            }
+            slot = (slot + 1) & (slotCount - 1);
+        }
+        return -1;
+    }
+
+    // Seqlock read: retry while a writer is in the slot or it changed underneath us
+    private static boolean readSlot(ByteBuffer buf, int slot, long hi, long lo, long[] row) {
+        int offset = slotOffset(slot);
+        while (true) {
+            long seq = (long) LONGS.getAcquire(buf, offset + OFF_SEQ);
+            if ((seq & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            boolean match = buf.getInt(offset + OFF_STATE) == LIVE
+                    && buf.getLong(offset + OFF_HI) == hi && buf.getLong(offset + OFF_LO) == lo;
+            row[0] = buf.getLong(offset + OFF_EXPIRES);
+            row[1] = buf.getInt(offset + OFF_USER);
+            VarHandle.acquireFence();
+            if ((long) LONGS.getOpaque(buf, offset + OFF_SEQ) == seq) {
+                return match;
+            }
+        }
+    }
+
+    private static void writeSlot(ByteBuffer buf, int slot, long hi, long lo, int userId, long expiresAt, int state) {
+        int offset = slotOffset(slot);
+        long seq = (long) LONGS.getOpaque(buf, offset + OFF_SEQ);
+        LONGS.setOpaque(buf, offset + OFF_SEQ, seq + 1);
+        VarHandle.storeStoreFence();
+        buf.putLong(offset + OFF_HI, hi);
+        buf.putLong(offset + OFF_LO, lo);
+        buf.putLong(offset + OFF_EXPIRES, expiresAt);
+        buf.putInt(offset + OFF_USER, userId);
+        buf.putInt(offset + OFF_STATE, state);
+        LONGS.setRelease(buf, offset + OFF_SEQ, seq + 2);
+    }
+
+    // Caller holds writeLock. Writes into buf, which is `table` except while compaction
+    // fills its replacement. Updates in place if the token exists; when the table is at
+    // its cap, a session near the home slot is evicted to make room
+    private void insert(MappedByteBuffer buf, long hi, long lo, int userId, long expiresAt) {
+        int existing = find(buf, hi, lo);
+        if (existing >= 0) {
+            writeSlot(buf, existing, hi, lo, userId, expiresAt, LIVE);
+            return;
+        }
+
+        // The table has room for twice the cap, so a free slot always turns up
+        long now = System.currentTimeMillis();
+        int free = -1;
+        int slot = home(hi, lo);
+        while (free < 0) {
+            int offset = slotOffset(slot);
+            if (buf.getInt(offset + OFF_STATE) != LIVE) {
+                free = slot;
+            } else if (buf.getLong(offset + OFF_EXPIRES) <= now) {
+                remove(buf, slot);
+                free = slot;
+            } else {
+                slot = (slot + 1) & (slotCount - 1);
+            }
+        }
+
+        if (live >= maxEntries) {
+            evictNear(buf, home(hi, lo));
+        }
+
+        if (buf.getInt(slotOffset(free) + OFF_STATE) == TOMBSTONE) tombstones--;
+        writeSlot(buf, free, hi, lo, userId, expiresAt, LIVE);
+        live++;
+    }
+
+    // Evicts the soonest-expiring of the next MAX_PROBE live sessions from start, which is
+    // roughly the least recently used one since expiry = last refresh + TTL
+    private void evictNear(ByteBuffer buf, int start) {
+        int victim = -1;
+        long victimExpiry = Long.MAX_VALUE;
+        int seen = 0;
+        int slot = start;
+        for (int i = 0; i < slotCount && seen < MAX_PROBE; i++) {
+            int offset = slotOffset(slot);
+            if (buf.getInt(offset + OFF_STATE) == LIVE) {
+                seen++;
+                long slotExpiry = buf.getLong(offset + OFF_EXPIRES);
+                if (slotExpiry < victimExpiry) {
+                    victim = slot;
+                    victimExpiry = slotExpiry;
+                }
+            }
+            slot = (slot + 1) & (slotCount - 1);
+        }
+        if (victim < 0) return;
+
+        int offset = slotOffset(victim);
+        if (log != null) { // no log yet while replaying
+            appendLog(REC_REMOVE, buf.getLong(offset + OFF_HI), buf.getLong(offset + OFF_LO), 0, 0);
+        }
+        remove(buf, victim);
+        evicted.increment();
+    }
+
+    private void remove(ByteBuffer buf, int slot) {
+        int offset = slotOffset(slot);
+        writeSlot(buf, slot, buf.getLong(offset + OFF_HI), buf.getLong(offset + OFF_LO), 0, 0, TOMBSTONE);
+        live--;
+        tombstones++;
+    }
+
+    private void countSlots() {
+        live = 0;
+        tombstones = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            int state = table.getInt(slotOffset(slot) + OFF_STATE);
+            if (state == LIVE) live++;
+            else if (state == TOMBSTONE) tombstones++;
+        }
+    }
+    // =================================
+
+    // ========== FILES ==========
+    private boolean isUsable(Path path) throws IOException {
+        if (Files.size(path) != HEADER_SIZE + (long) slotCount * SLOT_SIZE) return false;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(16);
+            channel.read(header, 0);
+            header.flip();
+            return header.getInt() == MAGIC && header.getInt() == slotCount && header.getInt() == 1;
+        }
+    }
+
+    private MappedByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) slotCount * SLOT_SIZE);
+        }
+    }
+
+    private MappedByteBuffer createTable(Path path) throws IOException {
+        Files.deleteIfExists(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) slotCount * SLOT_SIZE);
+            buf.putInt(0, MAGIC);
+            buf.putInt(4, slotCount);
+            buf.putInt(8, 0);
+            return buf;
+        }
+    }
+
+    private void setClean(boolean clean) {
+        table.putInt(8, clean ? 1 : 0);
+        table.force();
+    }
+
+    private void appendLog(byte type, long hi, long lo, int userId, long expiresAt) {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        record.put(type).putLong(hi).putLong(lo).putInt(userId).putLong(expiresAt);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 0, RECORD_SIZE - 4);
+        record.putInt((int) crc.getValue());
+        record.flip();
+        try {
+            while (record.hasRemaining()) log.write(record);
+            logRecords++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Session log write failed", e);
+        }
+    }
+
+    // Applies log records in order; stops at the first torn or corrupt record
+    private void replayLog() throws IOException {
+        if (!Files.exists(logPath)) return;
+
+        long now = System.currentTimeMillis();
+        int applied = 0;
+        try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.READ)) {
+            ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+            CRC32 crc = new CRC32();
+            while (true) {
+                record.clear();
+                while (record.hasRemaining() && channel.read(record) > 0) { }
+                if (record.hasRemaining()) break;
+
+                crc.reset();
+                crc.update(record.array(), 0, RECORD_SIZE - 4);
+                record.flip();
+                byte type = record.get();
+                long hi = record.getLong();
+                long lo = record.getLong();
+                int userId = record.getInt();
+                long expiresAt = record.getLong();
+                if (record.getInt() != (int) crc.getValue()) {
+                    System.out.println("⚠️ Session log: corrupt record after " + applied + " records, ignoring the rest");
+                    break;
+                }
+
+                if (type == REC_PUT && expiresAt > now) {
+                    insert(table, hi, lo, userId, expiresAt);
+                } else {
+                    int slot = find(table, hi, lo);
+                    if (slot >= 0) remove(table, slot);
+                }
+                applied++;
+            }
+        }
+        // Start the next log from the rebuilt state so the torn tail is gone
+        writeCompactedLog();
+    }
+
+    private void flush() {
+        writeLock.lock();
+        try {
+            log.force(false);
+            // Heavy churn leaves tombstones that lengthen every probe
+            if (tombstones > slotCount / 4) {
+                compact();
+            }
+        } catch (IOException e) {
+            System.err.println("⚠️ Session log flush failed: " + e.getMessage());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void close() {
+        writeLock.lock();
+        try {
+            log.force(true);
+            log.close();
+            table.force();
+            setClean(true);
+        } catch (IOException e) {
+            System.err.println("⚠️ Session table close failed: " + e.getMessage());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    // ===========================
+
+    // ========== COMPACTION ==========
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("⚠️ Session table compaction failed: " + e.getMessage());
+        }
+    }
+
+    // Rebuilds the table without expired entries and tombstones, then rewrites the log
+    // as one PUT per live session. The new table is filled and forced while readers
+    // still use the old mapping (writers wait on writeLock), and only then published,
+    // so a lookup never sees a partly copied table. Both files are replaced by atomic
+    // rename.
+    void compact() throws IOException {
+        writeLock.lock();
+        try {
+            MappedByteBuffer old = table;
+            Path tmp = Paths.get(tablePath + ".tmp");
+            MappedByteBuffer fresh = createTable(tmp);
+            long now = System.currentTimeMillis();
+
+            live = 0;
+            tombstones = 0;
+            for (int slot = 0; slot < slotCount; slot++) {
+                int offset = slotOffset(slot);
+                if (old.getInt(offset + OFF_STATE) != LIVE) continue;
+                long expiresAt = old.getLong(offset + OFF_EXPIRES);
+                if (expiresAt <= now) continue;
+                insert(fresh, old.getLong(offset + OFF_HI), old.getLong(offset + OFF_LO),
+                        old.getInt(offset + OFF_USER), expiresAt);
+            }
+            fresh.force();
+            table = fresh;
+            Files.move(tmp, tablePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            writeCompactedLog();
+            compactions.increment();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Caller holds writeLock (or is the constructor)
+    private void writeCompactedLog() throws IOException {
+        Path tmp = Paths.get(logPath + ".tmp");
+        FileChannel previous = log;
+        log = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        logRecords = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            int offset = slotOffset(slot);
+            if (table.getInt(offset + OFF_STATE) != LIVE) continue;
+            appendLog(REC_PUT, table.getLong(offset + OFF_HI), table.getLong(offset + OFF_LO),
+                    table.getInt(offset + OFF_USER), table.getLong(offset + OFF_EXPIRES));
+        }
+        log.force(true);
+        log.close();
+        Files.move(tmp, logPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        if (previous != null) previous.close();
+        log = FileChannel.open(logPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+    // ================================
+
+    // 32 hex chars -> {hi, lo}, or null for anything else
+    private static long[] parseToken(String token) {
+        if (token == null || token.length() != 32) return null;
+        try {
+            return new long[]{
+                    Long.parseUnsignedLong(token.substring(0, 16), 16),
+                    Long.parseUnsignedLong(token.substring(16), 16)
+            };
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
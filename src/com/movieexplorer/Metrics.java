@@ -0,0 +1,261 @@
+package com.movieexplorer;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+// Process-wide metrics registry, exposed at /api/metrics in the Prometheus text
+// format (version 0.0.4).
+//
+// Series are looked up once, when a route, bulkhead or client is set up, and the
+// caller keeps the LongAdder or LatencyHistogram it gets back. Recording is then
+// a striped add or a lock-free histogram increment with no map lookup, no
+// allocation and no lock: well under a microsecond per request.
+//
+// Timings are recorded in nanoseconds and exported in seconds as Prometheus
+// histograms over BOUNDS_SECONDS. A value that sits in the same ~1.6% log bucket
+// as a bound may be counted on either side of it.
+final class Metrics {
+    private static final double[] BOUNDS_SECONDS = {0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025,
+            0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+    private static final String[] BOUND_LABELS = new String[BOUNDS_SECONDS.length];
+    private static final String[] STATUS_CLASSES = {"1xx", "2xx", "3xx", "4xx", "5xx"};
+
+    private enum Type { COUNTER, GAUGE, HISTOGRAM }
+
+    static {
+        for (int i = 0; i < BOUNDS_SECONDS.length; i++) {
+            BOUND_LABELS[i] = BigDecimal.valueOf(BOUNDS_SECONDS[i]).stripTrailingZeros().toPlainString();
+        }
+    }
+
+    // After the constants above, which the constructor may use
+    static final Metrics REGISTRY = new Metrics();
+
+    // One metric name: its type and help text and a series per label set
+    private static final class Family {
+        final String name;
+        final String help;
+        final Type type;
+        final Map<String, Object> series = new ConcurrentHashMap<>(); // rendered labels -> series
+
+        Family(String name, String help, Type type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+    }
+
+    // Families in registration order, so the exposition reads top to bottom
+    private final Map<String, Family> families = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    private Metrics() {
+        gauge("process_uptime_seconds", "Seconds since the JVM started",
+                () -> uptimeMillis() / 1000.0);
+        gauge("jvm_heap_used_bytes", "Heap in use",
+                () -> Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory());
+    }
+
+    // Milliseconds since the JVM started
+    static long uptimeMillis() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+
+    // ========== REGISTRATION ==========
+    // labels are name/value pairs: counter("x_total", "...", "route", "/api/search")
+    LongAdder counter(String name, String help, String... labels) {
+        return (LongAdder) family(name, help, Type.COUNTER).series.computeIfAbsent(labels(labels), k -> new LongAdder());
+    }
+
+    // A counter kept elsewhere, e.g. a component's own LongAdder
+    void counter(String name, String help, LongSupplier value, String... labels) {
+        family(name, help, Type.COUNTER).series.put(labels(labels), value);
+    }
+
+    void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        family(name, help, Type.GAUGE).series.put(labels(labels), value);
+    }
+
+    // Durations in nanoseconds, exported as a histogram in seconds
+    LatencyHistogram timer(String name, String help, String... labels) {
+        return (LatencyHistogram) family(name, help, Type.HISTOGRAM).series
+                .computeIfAbsent(labels(labels), k -> new LatencyHistogram());
+    }
+
+    private Family family(String name, String help, Type type) {
+        Family family = families.computeIfAbsent(name, n -> new Family(n, help, type));
+        if (family.type != type) {
+            throw new IllegalArgumentException("Metric " + name + " is already a " + family.type);
+        }
+        return family;
+    }
+
+    private static String labels(String... pairs) {
+        if (pairs.length == 0) return "";
+        if (pairs.length % 2 != 0) throw new IllegalArgumentException("Labels must be name/value pairs");
+        StringBuilder out = new StringBuilder("{");
+        for (int i = 0; i < pairs.length; i += 2) {
+            if (i > 0) out.append(',');
+            out.append(pairs[i]).append("=\"");
+            String value = pairs[i + 1];
+            for (int c = 0; c < value.length(); c++) {
+                char ch = value.charAt(c);
+                if (ch == '\\' || ch == '"') out.append('\\').append(ch);
+                else if (ch == '\n') out.append("\\n");
+                else out.append(ch);
+            }
+            out.append('"');
+        }
+        return out.append('}').toString();
+    }
+    // ==================================
+
+    // ========== HTTP ==========
+    private static final String COMPLETION_ATTRIBUTE = "metrics.completion";
+
+    // Wraps a context's handler with a request counter per status class and a
+    // latency histogram. A request is recorded when handle() returns, or, for a
+    // handler that answers later via deferRecording, when it says it is done. A
+    // handler that throws, or finishes without sending a response, counts as a 5xx.
+    HttpHandler instrument(String server, String route, HttpHandler handler) {
+        LatencyHistogram latency = timer("http_request_duration_seconds",
+                "Time from handler entry until the response was sent", "server", server, "route", route);
+        LongAdder[] responses = new LongAdder[STATUS_CLASSES.length];
+        for (int i = 0; i < responses.length; i++) {
+            responses[i] = counter("http_requests_total", "Requests by route and response status class",
+                    "server", server, "route", route, "status", STATUS_CLASSES[i]);
+        }
+        return exchange -> {
+            Completion completion = new Completion(exchange, latency, responses);
+            exchange.setAttribute(COMPLETION_ATTRIBUTE, completion);
+            boolean failed = true;
+            try {
+                handler.handle(exchange);
+                failed = false;
+            } finally {
+                if (failed || !completion.deferred) completion.record(failed);
+            }
+        };
+    }
+
+    // For handlers that send their response from a callback after handle() returns.
+    // Call before returning and run the result once the response is out (or has
+    // failed); until then the request is neither timed nor counted.
+    static Runnable deferRecording(HttpExchange exchange) {
+        Object attribute = exchange.getAttribute(COMPLETION_ATTRIBUTE);
+        if (!(attribute instanceof Completion)) return () -> { }; // context not instrumented
+        Completion completion = (Completion) attribute;
+        completion.deferred = true;
+        return () -> completion.record(false);
+    }
+
+    // One request's pending measurement; recorded at most once
+    private static final class Completion {
+        final HttpExchange exchange;
+        final LatencyHistogram latency;
+        final LongAdder[] responses;
+        final long start = System.nanoTime();
+        final AtomicBoolean recorded = new AtomicBoolean();
+        volatile boolean deferred;
+
+        Completion(HttpExchange exchange, LatencyHistogram latency, LongAdder[] responses) {
+            this.exchange = exchange;
+            this.latency = latency;
+            this.responses = responses;
+        }
+
+        void record(boolean failed) {
+            if (!recorded.compareAndSet(false, true)) return;
+            latency.recordNanosSince(start);
+            int status = failed ? 500 : exchange.getResponseCode();
+            if (status < 100 || status >= 600) status = 500; // never answered
+            responses[status / 100 - 1].increment();
+        }
+    }
+
+    // GET /api/metrics
+    HttpHandler handler() {
+        return exchange -> {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                exchange.close();
+                return;
+            }
+            byte[] body = prometheus().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        };
+    }
+    // ==========================
+
+    // ========== EXPOSITION ==========
+    String prometheus() {
+        List<Family> snapshot;
+        synchronized (families) {
+            snapshot = new ArrayList<>(families.values());
+        }
+        StringBuilder out = new StringBuilder(4096);
+        for (Family family : snapshot) {
+            out.append("# HELP ").append(family.name).append(' ').append(family.help).append('\n');
+            out.append("# TYPE ").append(family.name).append(' ').append(family.type.name().toLowerCase()).append('\n');
+            for (Map.Entry<String, Object> series : new TreeMap<>(family.series).entrySet()) {
+                String labels = series.getKey();
+                Object value = series.getValue();
+                if (value instanceof LatencyHistogram) {
+                    writeHistogram(out, family.name, labels, (LatencyHistogram) value);
+                } else {
+                    out.append(family.name).append(labels).append(' ');
+                    if (value instanceof LongAdder) out.append(((LongAdder) value).sum());
+                    else if (value instanceof LongSupplier) out.append(((LongSupplier) value).getAsLong());
+                    else writeDouble(out, ((DoubleSupplier) value).getAsDouble());
+                    out.append('\n');
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    private static void writeHistogram(StringBuilder out, String name, String labels, LatencyHistogram histogram) {
+        long[] buckets = histogram.buckets(); // {upper bound ns, count, ...}, ascending
+        String prefix = labels.isEmpty() ? "{" : labels.substring(0, labels.length() - 1) + ",";
+        long cumulative = 0;
+        int b = 0;
+        for (int i = 0; i < BOUNDS_SECONDS.length; i++) {
+            long boundNanos = (long) (BOUNDS_SECONDS[i] * 1e9);
+            while (b < buckets.length && buckets[b] <= boundNanos) {
+                cumulative += buckets[b + 1];
+                b += 2;
+            }
+            out.append(name).append("_bucket").append(prefix).append("le=\"").append(BOUND_LABELS[i])
+                    .append("\"} ").append(cumulative).append('\n');
+        }
+        long count = cumulative;
+        for (; b < buckets.length; b += 2) count += buckets[b + 1];
+        out.append(name).append("_bucket").append(prefix).append("le=\"+Inf\"} ").append(count).append('\n');
+        out.append(name).append("_sum").append(labels).append(' ');
+        writeDouble(out, histogram.sum() / 1e9);
+        out.append('\n');
+        out.append(name).append("_count").append(labels).append(' ').append(count).append('\n');
+    }
+
+    private static void writeDouble(StringBuilder out, double value) {
+        if (Double.isNaN(value)) out.append("NaN");
+        else if (Double.isInfinite(value)) out.append(value > 0 ? "+Inf" : "-Inf");
+        else if (value == Math.rint(value) && Math.abs(value) < 1e15) out.append((long) value);
+        else out.append(value);
+    }
+    // ================================
+}
@@ -19,6 +19,10 @@ public class Movie {
     private double popularity; // TMDb popularity score
     private Map<String, Object> additionalInfo; // For extra data
 
+    // Where poster/backdrop URLs point; Main switches this to its /img proxy
+    private static volatile String imageBaseUrl = "https://image.tmdb.org/t/p";
+    private static volatile String posterPlaceholder = "https://via.placeholder.com/500x750?text=No+Poster";
+
     // ========== CONSTRUCTORS ==========
 
     // Original constructor (for backward compatibility)
@@ -65,11 +69,11 @@ public class Movie {
         String backdropPath = (String) tmdbData.get("backdrop_path");
 
         String poster = posterPath != null
-                ? "https://image.tmdb.org/t/p/w500" + posterPath
-                : "https://via.placeholder.com/500x750?text=No+Poster";
+                ? imageUrl("w500", posterPath)
+                : posterPlaceholder;
 
         String backdrop = backdropPath != null
-                ? "https://image.tmdb.org/t/p/w1280" + backdropPath
+                ? imageUrl("w1280", backdropPath)
                 : poster; // Fallback to poster if no backdrop
 
         // Parse genres
@@ -91,6 +95,17 @@ public class Movie {
         return movie;
     }
 
+    // TMDb image path ("/abc.jpg") at the given size, through the configured image base
+    public static String imageUrl(String size, String path) {
+        return imageBaseUrl + "/" + size + path;
+    }
+
+    // Serve images through an image proxy at baseUrl (/{size}/{file}, plus /w500/placeholder.svg)
+    public static void setImageProxy(String baseUrl) {
+        imageBaseUrl = baseUrl;
+        posterPlaceholder = baseUrl + "/w500/placeholder.svg";
+    }
+
     private static List<String> parseGenres(Map<String, Object> tmdbData) {
         List<String> genres = new java.util.ArrayList<>();
 
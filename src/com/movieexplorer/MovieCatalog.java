@@ -0,0 +1,284 @@
+package com.movieexplorer;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.util.*;
+
+// Versioned in-memory copy of the movies table for BackendServer.
+// Readers take the current snapshot with one volatile read and never touch the DB;
+// refresh() pulls only rows past the (updated_at, id) high-water mark, so both new
+// and re-imported rows reach it, and publishes a new snapshot. get() reads through
+// to the DB on a miss.
+class MovieCatalog {
+    // Rows written in the same second as the high-water mark can commit after we
+    // read it, so each refresh re-reads a short window and merges by id
+    private static final long REFRESH_OVERLAP_MS = 5_000;
+    private static final int REFRESH_BATCH = 1000;
+
+    private static final String SELECT_ROWS =
+            "SELECT m.*, u.name as added_by_name FROM movies m " +
+                    "LEFT JOIN users u ON m.added_by = u.id ";
+
+    static final String DELTA_SQL = SELECT_ROWS +
+            "WHERE m.updated_at > ? OR (m.updated_at = ? AND m.id > ?) " +
+            "ORDER BY m.updated_at, m.id LIMIT " + REFRESH_BATCH;
+
+    // Same order as the DB listing: rating DESC, id DESC
+    static final Comparator<CatalogMovie> RATING_ORDER = (a, b) -> {
+        int ratingCompare = b.rating.compareTo(a.rating);
+        if (ratingCompare != 0) return ratingCompare;
+        return Integer.compare(b.id, a.id);
+    };
+
+    private volatile Snapshot current = new Snapshot(0, Collections.emptyMap(),
+            Collections.emptyList(), new Timestamp(0), 0);
+
+    // ========== SNAPSHOT ==========
+    private static final class Snapshot {
+        final long version;
+        final Map<Integer, CatalogMovie> byId;
+        final List<CatalogMovie> byRating;
+        final Timestamp highWaterUpdatedAt;
+        final int highWaterId;
+
+        Snapshot(long version, Map<Integer, CatalogMovie> byId, List<CatalogMovie> byRating,
+                 Timestamp highWaterUpdatedAt, int highWaterId) {
+            this.version = version;
+            this.byId = byId;
+            this.byRating = byRating;
+            this.highWaterUpdatedAt = highWaterUpdatedAt;
+            this.highWaterId = highWaterId;
+        }
+    }
+    // ==============================
+
+    // ========== LOADING ==========
+    // Initial load is just a refresh from the epoch
+    synchronized int load(Connection connection) throws SQLException {
+        return refresh(connection);
+    }
+
+    // Pull rows added or updated since the high-water mark; returns how many changed
+    synchronized int refresh(Connection connection) throws SQLException {
+        Snapshot snapshot = current;
+        Map<Integer, CatalogMovie> changed = new HashMap<>();
+
+        Timestamp fromUpdatedAt = new Timestamp(Math.max(0, snapshot.highWaterUpdatedAt.getTime() - REFRESH_OVERLAP_MS));
+        int fromId = 0;
+        Timestamp highWaterUpdatedAt = snapshot.highWaterUpdatedAt;
+        int highWaterId = snapshot.highWaterId;
+
+        try (PreparedStatement stmt = connection.prepareStatement(DELTA_SQL)) {
+            while (true) {
+                stmt.setTimestamp(1, fromUpdatedAt);
+                stmt.setTimestamp(2, fromUpdatedAt);
+                stmt.setInt(3, fromId);
+
+                int rows = 0;
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        CatalogMovie movie = CatalogMovie.fromRow(rs);
+                        rows++;
+                        fromUpdatedAt = movie.updatedAt;
+                        fromId = movie.id;
+                        CatalogMovie held = snapshot.byId.get(movie.id);
+                        if (held == null || !held.updatedAt.equals(movie.updatedAt)) {
+                            changed.put(movie.id, movie);
+                        }
+                    }
+                }
+                if (rows < REFRESH_BATCH) break;
+            }
+        }
+
+        if (fromUpdatedAt.after(highWaterUpdatedAt)
+                || (fromUpdatedAt.equals(highWaterUpdatedAt) && fromId > highWaterId)) {
+            highWaterUpdatedAt = fromUpdatedAt;
+            highWaterId = fromId;
+        }
+
+        if (changed.isEmpty()) {
+            current = new Snapshot(snapshot.version, snapshot.byId, snapshot.byRating, highWaterUpdatedAt, highWaterId);
+            return 0;
+        }
+
+        publish(snapshot, changed.values(), highWaterUpdatedAt, highWaterId);
+        return changed.size();
+    }
+
+    // Single-row read-through for ids the snapshot has not seen yet
+    CatalogMovie get(Connection connection, int id) throws SQLException {
+        CatalogMovie movie = current.byId.get(id);
+        if (movie != null) return movie;
+
+        try (PreparedStatement stmt = connection.prepareStatement(SELECT_ROWS + "WHERE m.id = ?")) {
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) return null;
+                movie = CatalogMovie.fromRow(rs);
+            }
+        }
+
+        synchronized (this) {
+            Snapshot snapshot = current;
+            if (!snapshot.byId.containsKey(id)) {
+                // Leave the high-water mark alone so the next delta still sees its neighbours
+                publish(snapshot, Collections.singletonList(movie),
+                        snapshot.highWaterUpdatedAt, snapshot.highWaterId);
+            }
+        }
+        return movie;
+    }
+
+    // Rows in `changed` replace any the snapshot already holds under the same id
+    private void publish(Snapshot snapshot, Collection<CatalogMovie> changed,
+                         Timestamp highWaterUpdatedAt, int highWaterId) {
+        Map<Integer, CatalogMovie> byId = new HashMap<>(snapshot.byId);
+        Set<Integer> replaced = new HashSet<>();
+        for (CatalogMovie movie : changed) {
+            if (byId.put(movie.id, movie) != null) replaced.add(movie.id);
+        }
+
+        List<CatalogMovie> kept = snapshot.byRating;
+        if (!replaced.isEmpty()) {
+            kept = new ArrayList<>(snapshot.byRating.size());
+            for (CatalogMovie movie : snapshot.byRating) {
+                if (!replaced.contains(movie.id)) kept.add(movie);
+            }
+        }
+        List<CatalogMovie> byRating = mergeByRating(kept, changed);
+
+        current = new Snapshot(snapshot.version + 1, Collections.unmodifiableMap(byId),
+                Collections.unmodifiableList(byRating), highWaterUpdatedAt, highWaterId);
+    }
+
+    // The existing order with `added` merged in; `sorted` must not contain their ids. Only the delta is sorted; the two runs
+    // are then merged in one pass, and a single row is a binary search and one insert.
+    static List<CatalogMovie> mergeByRating(List<CatalogMovie> sorted, Collection<CatalogMovie> added) {
+        List<CatalogMovie> merged = new ArrayList<>(sorted.size() + added.size());
+        if (added.size() == 1) {
+            CatalogMovie movie = added.iterator().next();
+            int at = -(Collections.binarySearch(sorted, movie, RATING_ORDER) + 1); // ids are unique, never found
+            merged.addAll(sorted.subList(0, at));
+            merged.add(movie);
+            merged.addAll(sorted.subList(at, sorted.size()));
+            return merged;
+        }
+
+        List<CatalogMovie> delta = new ArrayList<>(added);
+        delta.sort(RATING_ORDER);
+        int i = 0;
+        int j = 0;
+        while (i < sorted.size() && j < delta.size()) {
+            merged.add(RATING_ORDER.compare(sorted.get(i), delta.get(j)) <= 0 ? sorted.get(i++) : delta.get(j++));
+        }
+        merged.addAll(sorted.subList(i, sorted.size()));
+        merged.addAll(delta.subList(j, delta.size()));
+        return merged;
+    }
+    // =============================
+
+    // ========== READS (memory only) ==========
+    CatalogMovie get(int id) {
+        return current.byId.get(id);
+    }
+
+    long version() {
+        return current.version;
+    }
+
+    int size() {
+        return current.byId.size();
+    }
+
+    // Movies strictly after (rating, id) in RATING_ORDER, at most limit + 1 so the
+    // caller can tell whether another page exists
+    List<CatalogMovie> pageAfter(BigDecimal rating, int id, int limit) {
+        List<CatalogMovie> byRating = current.byRating;
+        int start = 0;
+        if (rating != null) {
+            int idx = Collections.binarySearch(byRating, CatalogMovie.probe(rating, id), RATING_ORDER);
+            start = idx >= 0 ? idx + 1 : -(idx + 1);
+        }
+        return byRating.subList(start, Math.min(start + limit + 1, byRating.size()));
+    }
+
+    // Case-insensitive substring match on title, genre, director and cast (same
+    // semantics as the old LIKE '%term%' query), best rated first
+    List<CatalogMovie> search(String term, int limit) {
+        String needle = term.toLowerCase();
+        List<CatalogMovie> results = new ArrayList<>();
+        for (CatalogMovie movie : current.byRating) {
+            if (movie.searchText.contains(needle)) {
+                results.add(movie);
+                if (results.size() == limit) break;
+            }
+        }
+        return results;
+    }
+    // =========================================
+
+    // ========== ROW TYPE ==========
+    static final class CatalogMovie {
+        final int id;
+        final String title;
+        final int year;
+        final String genre;
+        final BigDecimal rating;
+        final String description;
+        final String posterUrl;
+        final String duration;
+        final String director;
+        final String cast;
+        final String addedBy;
+        final Timestamp addedAt;
+        final Timestamp updatedAt;
+        final String searchText; // lower-cased haystack for search()
+
+        private CatalogMovie(int id, String title, int year, String genre, BigDecimal rating,
+                             String description, String posterUrl, String duration, String director,
+                             String cast, String addedBy, Timestamp addedAt, Timestamp updatedAt) {
+            this.id = id;
+            this.title = title;
+            this.year = year;
+            this.genre = genre;
+            this.rating = rating != null ? rating : BigDecimal.ZERO;
+            this.description = description;
+            this.posterUrl = posterUrl;
+            this.duration = duration;
+            this.director = director;
+            this.cast = cast;
+            this.addedBy = addedBy;
+            this.addedAt = addedAt != null ? addedAt : new Timestamp(0);
+            this.updatedAt = updatedAt != null ? updatedAt : new Timestamp(0);
+            this.searchText = (nullToEmpty(title) + "\n" + nullToEmpty(genre) + "\n" +
+                    nullToEmpty(director) + "\n" + nullToEmpty(cast)).toLowerCase();
+        }
+
+        static CatalogMovie fromRow(ResultSet rs) throws SQLException {
+            return new CatalogMovie(
+                    rs.getInt("id"),
+                    rs.getString("title"),
+                    rs.getInt("year"),
+                    rs.getString("genre"),
+                    rs.getBigDecimal("rating"),
+                    rs.getString("description"),
+                    rs.getString("poster_url"),
+                    rs.getString("duration"),
+                    rs.getString("director"),
+                    rs.getString("cast"),
+                    rs.getString("added_by_name"),
+                    rs.getTimestamp("added_at"),
+                    rs.getTimestamp("updated_at"));
+        }
+
+        static CatalogMovie probe(BigDecimal rating, int id) {
+            return new CatalogMovie(id, null, 0, null, rating, null, null, null, null, null, null, null, null);
+        }
+
+        private static String nullToEmpty(String s) {
+            return s == null ? "" : s;
+        }
+    }
+    // ==============================
+}
@@ -0,0 +1,62 @@
+package com.movieexplorer;
+
+import java.util.List;
+import java.util.Map;
+
+// Movie as a CBOR map, for clients that send Accept: application/cbor. Same keys,
+// order and ?fields= projection as MovieJsonWriter. Inside the response's stringref
+// namespace, keys, genres and languages cost a few bytes after their first use.
+//
+// Image URLs differ only in the file name, so poster and backdrop are split after the
+// last '/' and sent as tag URL_PARTS_TAG over [prefix, file]. The prefix
+// ("https://.../w500/") then goes through the string table like any repeated string.
+// Clients join the two parts. The tag number is unregistered and private to this API.
+final class MovieCborWriter {
+    static final int URL_PARTS_TAG = 30_303;
+
+    private MovieCborWriter() {
+    }
+
+    static void write(CborOutput out, Movie movie, int fields) {
+        out.beginMap(Integer.bitCount(fields & MovieJsonWriter.ALL));
+        if ((fields & MovieJsonWriter.ID) != 0) out.writeString("id").writeInt(movie.getId());
+        if ((fields & MovieJsonWriter.TITLE) != 0) out.writeString("title").writeString(movie.getTitle());
+        if ((fields & MovieJsonWriter.YEAR) != 0) out.writeString("year").writeInt(movie.getYear());
+        if ((fields & MovieJsonWriter.RATING) != 0) out.writeString("rating").writeDouble(movie.getRating());
+        if ((fields & MovieJsonWriter.POSTER) != 0) writeUrl(out.writeString("poster"), movie.getPoster());
+        if ((fields & MovieJsonWriter.BACKDROP) != 0) writeUrl(out.writeString("backdrop"), movie.getBackdrop());
+        if ((fields & MovieJsonWriter.GENRES) != 0) writeStrings(out.writeString("genres"), movie.getGenres());
+        if ((fields & MovieJsonWriter.DESCRIPTION) != 0) out.writeString("description").writeString(movie.getDescription());
+        if ((fields & MovieJsonWriter.OVERVIEW) != 0) out.writeString("overview").writeString(movie.getOverview());
+        if ((fields & MovieJsonWriter.RUNTIME) != 0) out.writeString("runtime").writeInt(movie.getRuntime());
+        if ((fields & MovieJsonWriter.LANGUAGE) != 0) out.writeString("language").writeString(movie.getLanguage());
+        if ((fields & MovieJsonWriter.POPULARITY) != 0) out.writeString("popularity").writeDouble(movie.getPopularity());
+        if ((fields & MovieJsonWriter.ADDITIONAL_INFO) != 0) {
+            Map<String, Object> additionalInfo = movie.getAdditionalInfo();
+            out.writeString("additionalInfo");
+            if (additionalInfo == null) out.writeNull();
+            else out.writeMap(additionalInfo);
+        }
+    }
+
+    private static void writeUrl(CborOutput out, String url) {
+        int split = url == null ? -1 : url.lastIndexOf('/') + 1;
+        if (split <= 0 || split == url.length()) {
+            out.writeString(url);
+            return;
+        }
+        out.writeTag(URL_PARTS_TAG).beginArray(2);
+        out.writeString(url, 0, split).writeString(url, split, url.length());
+    }
+
+    private static void writeStrings(CborOutput out, List<String> values) {
+        if (values == null) {
+            out.writeNull();
+            return;
+        }
+        out.beginArray(values.size());
+        for (int i = 0, n = values.size(); i < n; i++) {
+            out.writeString(values.get(i));
+        }
+    }
+}
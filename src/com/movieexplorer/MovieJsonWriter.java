@@ -0,0 +1,189 @@
+package com.movieexplorer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Hand-specialized JSON for the shapes we serve most: Movie (Main) and catalog rows
+// (BackendServer). Fields go straight into a JsonOutput in a fixed order with
+// precomputed key bytes, so nothing is boxed, no map is built and no key is encoded
+// per movie. Movies carry the same fields as Movie.toMap(); the key order is fixed.
+//
+// Movie fields are bits, so a request's ?fields= projection is an int mask and
+// skipping a field costs one test.
+final class MovieJsonWriter {
+    // Which catalog row fields a BackendServer response carries: favorites get the
+    // card fields, search adds the description, /api/movies the full row
+    enum Row { FAVORITE, SEARCH, FULL }
+
+    // ========== MOVIE FIELDS ==========
+    static final int ID = 1;
+    static final int TITLE = 1 << 1;
+    static final int YEAR = 1 << 2;
+    static final int RATING = 1 << 3;
+    static final int POSTER = 1 << 4;
+    static final int BACKDROP = 1 << 5;
+    static final int GENRES = 1 << 6;
+    static final int DESCRIPTION = 1 << 7;
+    static final int OVERVIEW = 1 << 8;
+    static final int RUNTIME = 1 << 9;
+    static final int LANGUAGE = 1 << 10;
+    static final int POPULARITY = 1 << 11;
+    static final int ADDITIONAL_INFO = 1 << 12;
+    static final int ALL = (1 << 13) - 1;
+
+    // Grid tiles; the detail page (everything but the raw TMDb payload)
+    static final int CARD = ID | TITLE | POSTER | RATING;
+    static final int DETAIL = ALL & ~ADDITIONAL_INFO;
+
+    // Accepted in ?fields=, alongside the field names themselves
+    private static final Map<String, Integer> NAMES = new LinkedHashMap<>();
+    static {
+        NAMES.put("id", ID);
+        NAMES.put("title", TITLE);
+        NAMES.put("year", YEAR);
+        NAMES.put("rating", RATING);
+        NAMES.put("poster", POSTER);
+        NAMES.put("backdrop", BACKDROP);
+        NAMES.put("genres", GENRES);
+        NAMES.put("description", DESCRIPTION);
+        NAMES.put("overview", OVERVIEW);
+        NAMES.put("runtime", RUNTIME);
+        NAMES.put("language", LANGUAGE);
+        NAMES.put("popularity", POPULARITY);
+        NAMES.put("additionalInfo", ADDITIONAL_INFO);
+        NAMES.put("card", CARD);
+        NAMES.put("detail", DETAIL);
+        NAMES.put("all", ALL);
+    }
+
+    // Mask for a ?fields= value: comma-separated field and profile names, unioned
+    // ("card,genres"). Absent or blank means every field. Unknown names throw
+    // IllegalArgumentException so a typo fails loudly instead of silently dropping data.
+    static int fields(String spec) {
+        if (spec == null || spec.isBlank()) return ALL;
+        int mask = 0;
+        for (String name : spec.split(",")) {
+            Integer bits = NAMES.get(name.trim());
+            if (bits == null) {
+                throw new IllegalArgumentException("Unknown field \"" + name.trim() + "\"; expected one of " + NAMES.keySet());
+            }
+            mask |= bits;
+        }
+        return mask;
+    }
+    // ==================================
+
+    // Movie
+    private static final byte[] K_ID = key("id");
+    private static final byte[] K_TITLE = key("title");
+    private static final byte[] K_YEAR = key("year");
+    private static final byte[] K_RATING = key("rating");
+    private static final byte[] K_POSTER = key("poster");
+    private static final byte[] K_BACKDROP = key("backdrop");
+    private static final byte[] K_GENRES = key("genres");
+    private static final byte[] K_DESCRIPTION = key("description");
+    private static final byte[] K_OVERVIEW = key("overview");
+    private static final byte[] K_RUNTIME = key("runtime");
+    private static final byte[] K_LANGUAGE = key("language");
+    private static final byte[] K_POPULARITY = key("popularity");
+    private static final byte[] K_ADDITIONAL_INFO = key("additionalInfo");
+
+    // Catalog rows
+    private static final byte[] K_GENRE = key("genre");
+    private static final byte[] K_POSTER_URL = key("posterUrl");
+    private static final byte[] K_DURATION = key("duration");
+    private static final byte[] K_DIRECTOR = key("director");
+    private static final byte[] K_CAST = key("cast");
+    private static final byte[] K_ADDED_BY = key("addedBy");
+
+    private MovieJsonWriter() {
+    }
+
+    private static byte[] key(String name) {
+        return ("\"" + name + "\":").getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Writes the key, preceded by a comma unless it is the first in the object at start
+    private static JsonOutput key(JsonOutput out, int start, byte[] key) {
+        if (out.size() != start + 1) out.writeByte(',');
+        return out.writeRaw(key);
+    }
+
+    // ========== MOVIE ==========
+    static void write(JsonOutput out, Movie movie) {
+        write(out, movie, ALL);
+    }
+
+    static void write(JsonOutput out, Movie movie, int fields) {
+        int start = out.size();
+        out.writeByte('{');
+        if ((fields & ID) != 0) key(out, start, K_ID).writeInt(movie.getId());
+        if ((fields & TITLE) != 0) key(out, start, K_TITLE).writeString(movie.getTitle());
+        if ((fields & YEAR) != 0) key(out, start, K_YEAR).writeInt(movie.getYear());
+        if ((fields & RATING) != 0) key(out, start, K_RATING).writeDouble(movie.getRating());
+        if ((fields & POSTER) != 0) key(out, start, K_POSTER).writeString(movie.getPoster());
+        if ((fields & BACKDROP) != 0) key(out, start, K_BACKDROP).writeString(movie.getBackdrop());
+        if ((fields & GENRES) != 0) writeStrings(key(out, start, K_GENRES), movie.getGenres());
+        if ((fields & DESCRIPTION) != 0) key(out, start, K_DESCRIPTION).writeString(movie.getDescription());
+        if ((fields & OVERVIEW) != 0) key(out, start, K_OVERVIEW).writeString(movie.getOverview());
+        if ((fields & RUNTIME) != 0) key(out, start, K_RUNTIME).writeInt(movie.getRuntime());
+        if ((fields & LANGUAGE) != 0) key(out, start, K_LANGUAGE).writeString(movie.getLanguage());
+        if ((fields & POPULARITY) != 0) key(out, start, K_POPULARITY).writeDouble(movie.getPopularity());
+        if ((fields & ADDITIONAL_INFO) != 0) {
+            // Free-form; empty for seeded movies, the raw TMDb payload for loaded ones
+            Map<String, Object> additionalInfo = movie.getAdditionalInfo();
+            key(out, start, K_ADDITIONAL_INFO);
+            if (additionalInfo == null) out.writeNull();
+            else out.writeMap(additionalInfo);
+        }
+        out.writeByte('}');
+    }
+
+    private static void writeStrings(JsonOutput out, List<String> values) {
+        if (values == null) {
+            out.writeNull();
+            return;
+        }
+        out.writeByte('[');
+        for (int i = 0, n = values.size(); i < n; i++) {
+            if (i > 0) out.writeByte(',');
+            out.writeString(values.get(i));
+        }
+        out.writeByte(']');
+    }
+    // ===========================
+
+    // ========== CATALOG ROWS ==========
+    static void write(JsonOutput out, MovieCatalog.CatalogMovie movie, Row row) {
+        int start = out.size();
+        out.writeByte('{');
+        key(out, start, K_ID).writeInt(movie.id);
+        key(out, start, K_TITLE).writeString(movie.title);
+        key(out, start, K_YEAR).writeInt(movie.year);
+        key(out, start, K_GENRE).writeString(movie.genre);
+        key(out, start, K_RATING).writeDouble(movie.rating.doubleValue());
+        key(out, start, K_POSTER_URL).writeString(movie.posterUrl);
+        if (row != Row.FAVORITE) {
+            key(out, start, K_DESCRIPTION).writeString(movie.description);
+        }
+        if (row == Row.FULL) {
+            key(out, start, K_DURATION).writeString(movie.duration);
+            key(out, start, K_DIRECTOR).writeString(movie.director);
+            key(out, start, K_CAST).writeString(movie.cast);
+            key(out, start, K_ADDED_BY).writeString(movie.addedBy);
+        }
+        out.writeByte('}');
+    }
+
+    static void writeRows(JsonOutput out, List<MovieCatalog.CatalogMovie> movies, int count, Row row) {
+        out.writeByte('[');
+        for (int i = 0; i < count; i++) {
+            if (i > 0) out.writeByte(',');
+            write(out, movies.get(i), row);
+        }
+        out.writeByte(']');
+    }
+    // ==================================
+}
@@ -0,0 +1,72 @@
+package com.movieexplorer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque keyset cursor: the sort key of the last row on a page.
+// Clients echo it back as ?cursor= and never look inside.
+final class PageCursor {
+    static final int MAX_PAGE_SIZE = 100;
+
+    private static final String VERSION = "v1";
+    private static final char SEPARATOR = '|';
+
+    private final String[] keys;
+
+    private PageCursor(String[] keys) {
+        this.keys = keys;
+    }
+
+    // ========== ENCODING ==========
+    // kind ties a cursor to the listing that issued it, so a favorites cursor
+    // cannot be replayed against the movie list
+    static String encode(String kind, Object... keys) {
+        StringBuilder raw = new StringBuilder(VERSION).append(SEPARATOR).append(kind);
+        for (Object key : keys) {
+            raw.append(SEPARATOR).append(key);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Returns null when no cursor was sent (first page)
+    static PageCursor decode(String token, String kind, int arity) {
+        if (token == null || token.isEmpty()) return null;
+
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+
+        String[] parts = raw.split("\\" + SEPARATOR, -1);
+        if (parts.length != arity + 2 || !VERSION.equals(parts[0]) || !kind.equals(parts[1])) {
+            throw new IllegalArgumentException("Cursor does not belong to this listing");
+        }
+
+        String[] keys = new String[arity];
+        System.arraycopy(parts, 2, keys, 0, arity);
+        return new PageCursor(keys);
+    }
+    // ==============================
+
+    // ========== KEY ACCESS ==========
+    // Parse failures surface as NumberFormatException (an IllegalArgumentException)
+    String get(int index) { return keys[index]; }
+    int getInt(int index) { return Integer.parseInt(keys[index]); }
+    long getLong(int index) { return Long.parseLong(keys[index]); }
+    double getDouble(int index) { return Double.parseDouble(keys[index]); }
+    // ================================
+
+    // Clamp a client-requested page size to [1, MAX_PAGE_SIZE]
+    static int pageSize(String requested, int defaultSize) {
+        if (requested == null || requested.isEmpty()) return defaultSize;
+        try {
+            int size = Integer.parseInt(requested.trim());
+            return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        } catch (NumberFormatException e) {
+            return defaultSize;
+        }
+    }
+}
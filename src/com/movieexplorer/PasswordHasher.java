@@ -0,0 +1,100 @@
+package com.movieexplorer;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Dedicated pool for PBKDF2 work. One thread per core and a short queue: during a
+// login storm the excess is rejected straight away (503) instead of piling up
+// behind hashes and starving the HTTP threads that serve everything else.
+class PasswordHasher {
+    private final ThreadPoolExecutor executor;
+    private final long deadlineMillis;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    PasswordHasher(int threads, int queueLimit, long deadlineMillis) {
+        this.deadlineMillis = deadlineMillis;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueLimit),
+                r -> {
+                    Thread t = new Thread(r, "password-hash-" + threadNumber.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // Thrown when the pool is saturated; handlers map it to 503
+    static class BusyException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        BusyException(String message) {
+            super(message);
+        }
+    }
+
+    // Outcome of a login check; upgradedHash is set when the stored hash should be replaced
+    static final class Verification {
+        final boolean matches;
+        final String upgradedHash;
+
+        Verification(boolean matches, String upgradedHash) {
+            this.matches = matches;
+            this.upgradedHash = upgradedHash;
+        }
+    }
+
+    // ========== OPERATIONS ==========
+    String hash(String password) {
+        return call(() -> PasswordUtil.hashPassword(password));
+    }
+
+    // Verifies and, on success with an outdated hash, computes its replacement in the
+    // same task so the user's password never has to be handled twice
+    Verification verify(String password, String stored) {
+        return call(() -> {
+            if (!PasswordUtil.verifyPassword(password, stored)) {
+                return new Verification(false, null);
+            }
+            String upgraded = PasswordUtil.needsRehash(stored) ? PasswordUtil.hashPassword(password) : null;
+            return new Verification(true, upgraded);
+        });
+    }
+
+    private <T> T call(Callable<T> work) {
+        Future<T> future;
+        try {
+            future = executor.submit(work);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new BusyException("Password hashing queue full");
+        }
+
+        try {
+            return future.get(deadlineMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timedOut.increment();
+            throw new BusyException("Password hashing timed out");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new BusyException("Interrupted waiting for password hashing");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new RuntimeException(cause);
+        }
+    }
+    // ================================
+
+    // ========== STATS ==========
+    int getActive() { return executor.getActiveCount(); }
+    int getQueued() { return executor.getQueue().size(); }
+    long getRejected() { return rejected.sum(); }
+    long getTimedOut() { return timedOut.sum(); }
+    // ===========================
+}
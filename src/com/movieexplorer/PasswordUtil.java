@@ -1,13 +1,119 @@
 package com.movieexplorer;
 
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
 
+// Password hashing with PBKDF2-HMAC-SHA256.
+//
+// Stored format: pbkdf2_sha256$<iterations>$<base64 salt>$<base64 hash>
+// The iteration count travels with each hash, so the work factor can be raised
+// (calibrate) without breaking existing logins. Hashes from the original
+// "sha256hex:salt" format still verify and are reported by needsRehash.
+//
+// These calls are deliberately slow; BackendServer runs them on PasswordHasher.
 public class PasswordUtil {
+    private static final String PREFIX = "pbkdf2_sha256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    // Never go below this, however slow the machine
+    static final int MIN_ITERATIONS = 100_000;
+    private static final int MAX_ITERATIONS = 5_000_000;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static volatile int iterations = MIN_ITERATIONS;
 
     public static String hashPassword(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        int work = iterations;
+        return PREFIX + "$" + work + "$" + Base64.getEncoder().encodeToString(salt) + "$" +
+                Base64.getEncoder().encodeToString(pbkdf2(password, salt, work));
+    }
+
+    public static boolean verifyPassword(String password, String stored) {
+        if (stored == null) return false;
+
+        if (stored.startsWith(PREFIX + "$")) {
+            String[] parts = stored.split("\\$");
+            if (parts.length != 4) return false;
+            try {
+                int work = Integer.parseInt(parts[1]);
+                byte[] salt = Base64.getDecoder().decode(parts[2]);
+                byte[] expected = Base64.getDecoder().decode(parts[3]);
+                return MessageDigest.isEqual(expected, pbkdf2(password, salt, work));
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+        }
+
+        // Legacy: hex(SHA-256(password + salt)) + ":" + salt
+        String[] parts = stored.split(":");
+        if (parts.length != 2) return false;
+        String legacy = sha256Hex(password + parts[1]);
+        return MessageDigest.isEqual(legacy.getBytes(StandardCharsets.US_ASCII),
+                parts[0].getBytes(StandardCharsets.US_ASCII));
+    }
+
+    // True for legacy hashes and for PBKDF2 hashes made with well under the current
+    // work factor (the slack keeps calibration noise between boots from rehashing everyone)
+    public static boolean needsRehash(String stored) {
+        if (stored == null || !stored.startsWith(PREFIX + "$")) return true;
+        String[] parts = stored.split("\\$");
+        try {
+            return parts.length != 4 || Integer.parseInt(parts[1]) < iterations / 2;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    // Picks the iteration count that takes about targetMillis on this machine
+    public static int calibrate(long targetMillis) {
+        byte[] salt = new byte[SALT_BYTES];
+        int probe = 20_000;
+        for (int i = 0; i < 3; i++) {
+            pbkdf2("warmup", salt, probe); // let the JIT compile the HMAC loop
+        }
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            pbkdf2("calibration", salt, probe);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        long perIteration = Math.max(1, best / probe);
+        long target = targetMillis * 1_000_000L / perIteration;
+        // Round to 10k so the stored counts stay readable
+        int calibrated = (int) Math.max(MIN_ITERATIONS, Math.min(MAX_ITERATIONS, target / 10_000 * 10_000));
+        iterations = calibrated;
+        return calibrated;
+    }
+
+    static int getIterations() {
+        return iterations;
+    }
+
+    private static byte[] pbkdf2(String password, byte[] salt, int work) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, work, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Password hashing failed", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    private static String sha256Hex(String text) {
         try {
             MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] hashedBytes = md.digest(password.getBytes());
+            byte[] hashedBytes = md.digest(text.getBytes(StandardCharsets.UTF_8));
 
             StringBuilder sb = new StringBuilder();
             for (byte b : hashedBytes) {
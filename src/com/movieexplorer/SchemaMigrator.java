@@ -0,0 +1,238 @@
+package com.movieexplorer;
+
+import java.sql.*;
+import java.util.*;
+
+// Owns the database schema. Each migration runs once, in version order, and is
+// recorded in schema_migrations. MySQL commits DDL implicitly, so every step is
+// written to be safe to re-run if the process dies half way through.
+class SchemaMigrator {
+    private static final String LOCK_NAME = "movie_explorer_schema";
+
+    // ========== MIGRATIONS ==========
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "baseline users, movies and favorites tables", c -> {
+                execute(c, """
+                    CREATE TABLE IF NOT EXISTS users (
+                        id INT AUTO_INCREMENT PRIMARY KEY,
+                        name VARCHAR(100) NOT NULL,
+                        email VARCHAR(150) NOT NULL UNIQUE,
+                        password_hash VARCHAR(255) NOT NULL,
+                        created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                    )
+                """);
+                execute(c, """
+                    CREATE TABLE IF NOT EXISTS movies (
+                        id INT AUTO_INCREMENT PRIMARY KEY,
+                        title VARCHAR(255) NOT NULL,
+                        year INT,
+                        genre VARCHAR(255),
+                        rating DECIMAL(3,1) DEFAULT 0.0,
+                        description TEXT,
+                        poster_url VARCHAR(500),
+                        duration VARCHAR(50),
+                        director VARCHAR(255),
+                        cast TEXT,
+                        added_by INT,
+                        added_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                        FOREIGN KEY (added_by) REFERENCES users(id) ON DELETE SET NULL
+                    )
+                """);
+                execute(c, """
+                    CREATE TABLE IF NOT EXISTS favorites (
+                        id INT AUTO_INCREMENT PRIMARY KEY,
+                        user_id INT NOT NULL,
+                        movie_id INT NOT NULL,
+                        added_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                        UNIQUE(user_id, movie_id),
+                        FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+                        FOREIGN KEY (movie_id) REFERENCES movies(id) ON DELETE CASCADE
+                    )
+                """);
+            }),
+
+            new Migration(2, "covering index for favorites paging", c -> {
+                // Favorites paging filters on user_id, orders by (added_at, id) and only needs movie_id.
+                // Login already has UNIQUE(email), and movie listing is served from MovieCatalog, not SQL.
+                createIndexIfMissing(c, "favorites", "idx_favorites_user_added_movie", "user_id, added_at, id, movie_id");
+                dropIndexIfExists(c, "favorites", "idx_favorites_user_added");
+            }),
+
+            new Migration(3, "users.last_login_at, separate from the registration date", c -> {
+                addColumnIfMissing(c, "users", "last_login_at", "TIMESTAMP NULL DEFAULT NULL");
+            }),
+
+            new Migration(4, "movies.updated_at so catalog refresh sees re-imported rows", c -> {
+                // MySQL only bumps ON UPDATE columns when a value actually changes, so an
+                // identical re-import leaves the row alone. Catalog refresh walks (updated_at, id).
+                addColumnIfMissing(c, "movies", "updated_at",
+                        "TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP");
+                createIndexIfMissing(c, "movies", "idx_movies_updated_id", "updated_at, id");
+            })
+    );
+    // ================================
+
+    // ========== RUNNER ==========
+    static void migrate(Connection connection) throws SQLException {
+        execute(connection, """
+            CREATE TABLE IF NOT EXISTS schema_migrations (
+                version INT PRIMARY KEY,
+                description VARCHAR(255) NOT NULL,
+                applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+            )
+        """);
+
+        // Two machines booting together must not run the same migration twice
+        if (!acquireLock(connection)) {
+            throw new SQLException("Timed out waiting for the schema migration lock");
+        }
+        try {
+            int current = currentVersion(connection);
+            int applied = 0;
+            for (Migration migration : MIGRATIONS) {
+                if (migration.version <= current) continue;
+
+                System.out.println("🛠️ Applying migration V" + migration.version + ": " + migration.description);
+                migration.step.apply(connection);
+                try (PreparedStatement stmt = connection.prepareStatement(
+                        "INSERT INTO schema_migrations (version, description) VALUES (?, ?)")) {
+                    stmt.setInt(1, migration.version);
+                    stmt.setString(2, migration.description);
+                    stmt.executeUpdate();
+                }
+                applied++;
+            }
+            System.out.println("✅ Schema at V" + currentVersion(connection) +
+                    (applied > 0 ? " (" + applied + " migrations applied)" : " (up to date)"));
+        } finally {
+            releaseLock(connection);
+        }
+    }
+
+    private static int currentVersion(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_migrations")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static boolean acquireLock(Connection connection) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT GET_LOCK(?, 30)")) {
+            stmt.setString(1, LOCK_NAME);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private static void releaseLock(Connection connection) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.executeQuery().close();
+        }
+    }
+    // ============================
+
+    // ========== IDEMPOTENT DDL HELPERS ==========
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    // MySQL has no CREATE INDEX IF NOT EXISTS, so check the metadata first
+    private static boolean indexExists(Connection connection, String table, String indexName) throws SQLException {
+        try (ResultSet rs = connection.getMetaData().getIndexInfo(connection.getCatalog(), null, table, false, false)) {
+            while (rs.next()) {
+                if (indexName.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void createIndexIfMissing(Connection connection, String table, String indexName,
+                                             String columns) throws SQLException {
+        if (!indexExists(connection, table, indexName)) {
+            execute(connection, "CREATE INDEX " + indexName + " ON " + table + " (" + columns + ")");
+        }
+    }
+
+    private static void addColumnIfMissing(Connection connection, String table, String column,
+                                           String definition) throws SQLException {
+        try (ResultSet rs = connection.getMetaData().getColumns(connection.getCatalog(), null, table, column)) {
+            if (rs.next()) return;
+        }
+        execute(connection, "ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+    }
+
+    private static void dropIndexIfExists(Connection connection, String table, String indexName) throws SQLException {
+        if (indexExists(connection, table, indexName)) {
+            execute(connection, "DROP INDEX " + indexName + " ON " + table);
+        }
+    }
+    // ============================================
+
+    // ========== HOT QUERY CHECK ==========
+    // EXPLAINs each hot query with sample parameters and warns when any table in the
+    // plan is read with a full scan (type = ALL). On near-empty tables the optimizer
+    // may choose a scan anyway, so the row estimate is printed alongside.
+    static int checkHotQueries(Connection connection, List<HotQuery> queries) {
+        int fullScans = 0;
+        for (HotQuery query : queries) {
+            try (PreparedStatement stmt = connection.prepareStatement("EXPLAIN " + query.sql)) {
+                for (int i = 0; i < query.sampleParams.length; i++) {
+                    stmt.setObject(i + 1, query.sampleParams[i]);
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        if ("ALL".equalsIgnoreCase(rs.getString("type"))) {
+                            fullScans++;
+                            System.out.println("⚠️ Hot query '" + query.name + "' does a full scan of " +
+                                    rs.getString("table") + " (~" + rs.getLong("rows") + " rows, possible keys: " +
+                                    rs.getString("possible_keys") + ")");
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                System.out.println("⚠️ Could not EXPLAIN hot query '" + query.name + "': " + e.getMessage());
+            }
+        }
+        if (fullScans == 0) {
+            System.out.println("✅ All " + queries.size() + " hot queries use indexes");
+        }
+        return fullScans;
+    }
+
+    static final class HotQuery {
+        final String name;
+        final String sql;
+        final Object[] sampleParams;
+
+        HotQuery(String name, String sql, Object... sampleParams) {
+            this.name = name;
+            this.sql = sql;
+            this.sampleParams = sampleParams;
+        }
+    }
+    // =====================================
+
+    @FunctionalInterface
+    private interface Step {
+        void apply(Connection connection) throws SQLException;
+    }
+
+    private static final class Migration {
+        final int version;
+        final String description;
+        final Step step;
+
+        Migration(int version, String description, Step step) {
+            this.version = version;
+            this.description = description;
+            this.step = step;
+        }
+    }
+}
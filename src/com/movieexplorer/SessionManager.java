@@ -0,0 +1,34 @@
+package com.movieexplorer;
+
+import java.util.Map;
+
+// How BackendServer issues and checks session tokens. Selected at startup with
+// SESSION_MODE: "memory" (SessionStore, the default), "stateless" (SignedSessionTokens)
+// or "mapped" (MappedSessionTable, survives restarts).
+interface SessionManager {
+    // Issues a new token for the session
+    String create(BackendServer.Session session);
+
+    // The session for a token, or null if it is unknown, expired or revoked
+    BackendServer.Session get(String token);
+
+    // Logout
+    void revoke(String token);
+
+    // Gauges for /api/health
+    Map<String, Object> stats();
+
+    static SessionManager fromEnvironment(long ttlMs, int maxEntries) {
+        String mode = System.getenv("SESSION_MODE");
+        if (mode == null || mode.isEmpty() || mode.equals("memory")) {
+            return new SessionStore(ttlMs, maxEntries);
+        }
+        if (mode.equals("stateless")) {
+            return SignedSessionTokens.fromEnvironment(ttlMs);
+        }
+        if (mode.equals("mapped")) {
+            return MappedSessionTable.fromEnvironment(ttlMs, maxEntries);
+        }
+        throw new IllegalArgumentException("Unknown SESSION_MODE: " + mode);
+    }
+}
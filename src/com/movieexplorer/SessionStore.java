@@ -0,0 +1,257 @@
+package com.movieexplorer;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Expiring session store for BackendServer.
+//
+// Lookups are a plain ConcurrentHashMap read plus a volatile write to slide the TTL;
+// they never take a lock. Expiry is driven by hierarchical timing wheels (3 levels x 64
+// slots of 1s, ~72h span), split into stripes that each have their own lock, so the
+// once-a-second maintenance tick only ever contends with writers of one stripe.
+// Sliding refreshes don't move the entry: when its slot fires and the deadline has
+// moved on, it is simply rescheduled. Past the entry cap, the entries closest to
+// expiry (i.e. least recently used, since expiry = last access + TTL) are spilled.
+class SessionStore implements SessionManager {
+    private static final int STRIPES = 16;
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS; // 64 slots per level
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 3;
+    private static final long TICK_MS = 1000;
+    private static final int MAX_SPILL_PER_PUT = 16;
+
+    private final long ttlMs;
+    private final int maxEntries;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+    private volatile double evictionsPerMinute = 0;
+    private long lastEvictionTotal = 0;
+    private long lastRateSample = System.currentTimeMillis();
+
+    SessionStore(long ttlMs, int maxEntries) {
+        this.ttlMs = ttlMs;
+        this.maxEntries = maxEntries;
+        long startTick = System.currentTimeMillis() / TICK_MS;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(startTick);
+        }
+
+        ScheduledExecutorService maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "session-expiry");
+            t.setDaemon(true);
+            return t;
+        });
+        maintenance.scheduleAtFixedRate(this::tick, TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+    }
+
+    // ========== PUBLIC API ==========
+    @Override
+    public String create(BackendServer.Session session) {
+        String token = UUID.randomUUID().toString().replace("-", "");
+        put(token, session);
+        return token;
+    }
+
+    void put(String token, BackendServer.Session session) {
+        long now = System.currentTimeMillis();
+        Entry entry = new Entry(token, session, now + ttlMs);
+        Entry previous = entries.put(token, entry);
+        if (previous != null) previous.dead = true;
+
+        Stripe stripe = stripeFor(token);
+        stripe.lock.lock();
+        try {
+            stripe.schedule(entry);
+            int excess = entries.size() - maxEntries;
+            if (excess > 0) {
+                stripe.spill(Math.min(excess, MAX_SPILL_PER_PUT));
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    // Returns the live session and slides its expiry, or null
+    @Override
+    public BackendServer.Session get(String token) {
+        Entry entry = entries.get(token);
+        if (entry == null) return null;
+
+        long now = System.currentTimeMillis();
+        if (entry.expiresAt <= now) {
+            // The wheel will get to it; just make sure nobody else sees it meanwhile
+            if (entries.remove(token, entry)) {
+                entry.dead = true;
+                expired.increment();
+            }
+            return null;
+        }
+        entry.expiresAt = now + ttlMs;
+        return entry.session;
+    }
+
+    @Override
+    public void revoke(String token) {
+        Entry entry = entries.remove(token);
+        if (entry != null) entry.dead = true; // its wheel slot drops it lazily
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("mode", "memory");
+        stats.put("live", entries.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("expiredTotal", expired.sum());
+        stats.put("spilledTotal", spilled.sum());
+        stats.put("evictionsPerMinute", evictionsPerMinute);
+        return stats;
+    }
+    // ================================
+
+    // ========== MAINTENANCE ==========
+    private void tick() {
+        long nowTick = System.currentTimeMillis() / TICK_MS;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.advanceTo(nowTick);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        if (now - lastRateSample >= 60_000) {
+            long total = expired.sum() + spilled.sum();
+            evictionsPerMinute = (total - lastEvictionTotal) * 60_000.0 / (now - lastRateSample);
+            lastEvictionTotal = total;
+            lastRateSample = now;
+        }
+    }
+
+    private Stripe stripeFor(String token) {
+        return stripes[(token.hashCode() & 0x7fffffff) % STRIPES];
+    }
+
+    private void evict(Entry entry, LongAdder counter) {
+        if (entries.remove(entry.token, entry)) {
+            counter.increment();
+        }
+        entry.dead = true;
+    }
+    // =================================
+
+    // ========== TIMING WHEEL ==========
+    private final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        // wheels[level][slot]; level L slots are 64^L ticks wide
+        @SuppressWarnings("unchecked")
+        final List<Entry>[][] wheels = (List<Entry>[][]) new List<?>[LEVELS][WHEEL_SIZE];
+        long currentTick;
+
+        Stripe(long startTick) {
+            this.currentTick = startTick;
+            for (int level = 0; level < LEVELS; level++) {
+                for (int slot = 0; slot < WHEEL_SIZE; slot++) {
+                    wheels[level][slot] = new ArrayList<>();
+                }
+            }
+        }
+
+        void schedule(Entry entry) {
+            long deadlineTick = Math.max(entry.expiresAt / TICK_MS, currentTick + 1);
+            long delta = deadlineTick - currentTick;
+            for (int level = 0; level < LEVELS; level++) {
+                if (delta < (1L << (WHEEL_BITS * (level + 1))) || level == LEVELS - 1) {
+                    int slot = (int) ((deadlineTick >> (WHEEL_BITS * level)) & WHEEL_MASK);
+                    wheels[level][slot].add(entry);
+                    return;
+                }
+            }
+        }
+
+        void advanceTo(long nowTick) {
+            while (currentTick < nowTick) {
+                currentTick++;
+
+                // Cascade coarser wheels down when the finer one wraps
+                for (int level = 1; level < LEVELS; level++) {
+                    if ((currentTick & ((1L << (WHEEL_BITS * level)) - 1)) != 0) break;
+                    int slot = (int) ((currentTick >> (WHEEL_BITS * level)) & WHEEL_MASK);
+                    List<Entry> cascading = wheels[level][slot];
+                    wheels[level][slot] = new ArrayList<>();
+                    for (Entry entry : cascading) {
+                        if (!entry.dead) schedule(entry);
+                    }
+                }
+
+                int slot = (int) (currentTick & WHEEL_MASK);
+                List<Entry> due = wheels[0][slot];
+                if (due.isEmpty()) continue;
+                wheels[0][slot] = new ArrayList<>();
+
+                for (Entry entry : due) {
+                    if (entry.dead) continue;
+                    if (entry.expiresAt / TICK_MS > currentTick) {
+                        schedule(entry); // slid since it was scheduled
+                    } else {
+                        evict(entry, expired);
+                    }
+                }
+            }
+        }
+
+        // Evict up to n live entries with the earliest deadlines, walking slots in
+        // expiry order; slid entries met on the way are moved to their real slot
+        void spill(int n) {
+            for (int level = 0; level < LEVELS && n > 0; level++) {
+                int shift = WHEEL_BITS * level;
+                for (int i = 1; i <= WHEEL_SIZE && n > 0; i++) {
+                    long slotIndex = (currentTick >> shift) + i;
+                    long slotEndTick = (slotIndex + 1) << shift; // exclusive
+                    List<Entry> bucket = wheels[level][(int) (slotIndex & WHEEL_MASK)];
+                    List<Entry> moved = new ArrayList<>();
+                    Iterator<Entry> it = bucket.iterator();
+                    while (it.hasNext() && n > 0) {
+                        Entry entry = it.next();
+                        it.remove();
+                        if (entry.dead) continue;
+                        if (entry.expiresAt / TICK_MS >= slotEndTick) {
+                            moved.add(entry);
+                        } else {
+                            evict(entry, spilled);
+                            n--;
+                        }
+                    }
+                    for (Entry entry : moved) {
+                        schedule(entry);
+                    }
+                }
+            }
+        }
+    }
+    // ==================================
+
+    private static final class Entry {
+        final String token;
+        final BackendServer.Session session;
+        volatile long expiresAt;
+        volatile boolean dead;
+
+        Entry(String token, BackendServer.Session session, long expiresAt) {
+            this.token = token;
+            this.session = session;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.movieexplorer;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Self-contained session tokens: any node holding the key can verify a token with
+// no lookup and no shared state.
+//
+// Token = base64url(payload) "." base64url(HMAC-SHA256(payload) truncated to 16 bytes)
+// payload = version(1) | kid(1) | userId(4) | issuedAt(4, epoch s) | expiresAt(4, epoch s) | nonce(8)
+//
+// Keys come from SESSION_KEYS="kid:base64secret,kid:base64secret,...". The first key
+// signs; all of them verify, so a new key can be rolled out everywhere before it
+// becomes the signing key, and an old one dropped once its tokens have expired.
+//
+// Logout adds the token's nonce to a revocation bloom filter held by this node. Two
+// generations rotate every TTL, so a revoked token stays blocked until it expires
+// anyway. A false positive only means someone has to log in again.
+//
+// Revocation is single-node: the filter is not shared and does not survive a
+// restart. Behind a load balancer, a logged-out token is still accepted by every
+// other node (and by this one after a restart) until it expires, so keep the TTL
+// short there, or use SESSION_MODE=memory/mapped with sticky sessions where logout
+// has to take effect everywhere at once.
+class SignedSessionTokens implements SessionManager {
+    private static final byte VERSION = 1;
+    private static final int PAYLOAD_LENGTH = 22;
+    private static final int MAC_LENGTH = 16;
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final long ttlMs;
+    private final SigningKey signingKey;
+    private final SigningKey[] keysById = new SigningKey[256];
+    private final SecureRandom random = new SecureRandom();
+
+    private final Object rotationLock = new Object();
+    private volatile BloomFilter revokedCurrent = new BloomFilter();
+    private volatile BloomFilter revokedPrevious = new BloomFilter();
+    private volatile long nextRotation;
+
+    private final LongAdder issued = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder revoked = new LongAdder();
+
+    SignedSessionTokens(long ttlMs, List<SigningKey> keys) {
+        if (keys.isEmpty()) throw new IllegalArgumentException("At least one session key is required");
+        this.ttlMs = ttlMs;
+        this.signingKey = keys.get(0);
+        for (SigningKey key : keys) {
+            keysById[key.id] = key;
+        }
+        this.nextRotation = System.currentTimeMillis() + ttlMs;
+    }
+
+    static SignedSessionTokens fromEnvironment(long ttlMs) {
+        String spec = System.getenv("SESSION_KEYS");
+        List<SigningKey> keys = new ArrayList<>();
+        if (spec == null || spec.isEmpty()) {
+            // Tokens will not verify on other nodes or after a restart
+            System.out.println("⚠️ SESSION_KEYS not set, using a random per-process session key");
+            byte[] secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+            keys.add(new SigningKey(0, secret));
+        } else {
+            // Shared keys mean several nodes, and each only knows its own logouts
+            System.out.println("⚠️ Stateless sessions: logout is only enforced on the node that handled it");
+            for (String entry : spec.split(",")) {
+                String[] parts = entry.trim().split(":", 2);
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("SESSION_KEYS entries must look like kid:base64secret");
+                }
+                int id = Integer.parseInt(parts[0]);
+                if (id < 0 || id > 255) {
+                    throw new IllegalArgumentException("Session key id must be 0-255: " + id);
+                }
+                byte[] secret = Base64.getDecoder().decode(parts[1]);
+                if (secret.length < 32) {
+                    throw new IllegalArgumentException("Session key " + id + " must be at least 32 bytes");
+                }
+                keys.add(new SigningKey(id, secret));
+            }
+        }
+        return new SignedSessionTokens(ttlMs, keys);
+    }
+
+    // ========== SessionManager ==========
+    @Override
+    public String create(BackendServer.Session session) {
+        long now = System.currentTimeMillis();
+        ByteBuffer payload = ByteBuffer.allocate(PAYLOAD_LENGTH);
+        payload.put(VERSION);
+        payload.put((byte) signingKey.id);
+        payload.putInt(session.userId);
+        payload.putInt((int) (now / 1000));
+        payload.putInt((int) ((now + ttlMs) / 1000));
+        payload.putLong(random.nextLong());
+
+        byte[] bytes = payload.array();
+        issued.increment();
+        return ENCODER.encodeToString(bytes) + "." + ENCODER.encodeToString(signingKey.sign(bytes));
+    }
+
+    @Override
+    public BackendServer.Session get(String token) {
+        byte[] payload = verify(token);
+        if (payload == null) {
+            rejected.increment();
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        buffer.position(2);
+        int userId = buffer.getInt();
+        buffer.getInt(); // issuedAt
+        long expiresAt = Integer.toUnsignedLong(buffer.getInt()) * 1000;
+        long nonce = buffer.getLong();
+
+        if (expiresAt <= System.currentTimeMillis() || isRevoked(nonce)) {
+            rejected.increment();
+            return null;
+        }
+        // Name and email are not carried in the token; handlers only need the id
+        return new BackendServer.Session(userId, null, null);
+    }
+
+    @Override
+    public void revoke(String token) {
+        byte[] payload = verify(token);
+        if (payload == null) return; // forged or garbled tokens don't get to fill the filter
+
+        rotateIfDue();
+        revokedCurrent.add(ByteBuffer.wrap(payload).getLong(PAYLOAD_LENGTH - 8));
+        revoked.increment();
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("mode", "stateless");
+        stats.put("signingKeyId", signingKey.id);
+        stats.put("issuedTotal", issued.sum());
+        stats.put("rejectedTotal", rejected.sum());
+        stats.put("revokedTotal", revoked.sum());
+        stats.put("revocationScope", "node");
+        stats.put("revocationFillRatio", revokedCurrent.fillRatio());
+        return stats;
+    }
+    // ====================================
+
+    // ========== VERIFICATION ==========
+    // Returns the payload if the token is well formed and its MAC checks out
+    private byte[] verify(String token) {
+        if (token == null) return null;
+        int dot = token.indexOf('.');
+        if (dot < 0) return null;
+
+        byte[] payload;
+        byte[] mac;
+        try {
+            payload = DECODER.decode(token.substring(0, dot));
+            mac = DECODER.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (payload.length != PAYLOAD_LENGTH || mac.length != MAC_LENGTH || payload[0] != VERSION) {
+            return null;
+        }
+
+        SigningKey key = keysById[payload[1] & 0xff];
+        if (key == null) return null; // signed with a key this node has retired
+        return MessageDigest.isEqual(mac, key.sign(payload)) ? payload : null;
+    }
+
+    private boolean isRevoked(long nonce) {
+        rotateIfDue();
+        return revokedCurrent.mightContain(nonce) || revokedPrevious.mightContain(nonce);
+    }
+
+    private void rotateIfDue() {
+        if (System.currentTimeMillis() < nextRotation) return;
+        synchronized (rotationLock) {
+            if (System.currentTimeMillis() < nextRotation) return;
+            revokedPrevious = revokedCurrent;
+            revokedCurrent = new BloomFilter();
+            nextRotation = System.currentTimeMillis() + ttlMs;
+        }
+    }
+    // ==================================
+
+    // ========== KEYS ==========
+    static final class SigningKey {
+        final int id;
+        private final SecretKeySpec secret;
+        // Mac instances are not thread-safe and expensive to look up
+        private final ThreadLocal<Mac> mac;
+
+        SigningKey(int id, byte[] secret) {
+            this.id = id;
+            this.secret = new SecretKeySpec(secret, MAC_ALGORITHM);
+            this.mac = ThreadLocal.withInitial(this::newMac);
+        }
+
+        byte[] sign(byte[] payload) {
+            return Arrays.copyOf(mac.get().doFinal(payload), MAC_LENGTH);
+        }
+
+        private Mac newMac() {
+            try {
+                Mac m = Mac.getInstance(MAC_ALGORITHM);
+                m.init(secret);
+                return m;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 unavailable", e);
+            }
+        }
+    }
+    // ==========================
+
+    // ========== REVOCATION FILTER ==========
+    // 2^20 bits (128 KB), 7 probes: about 1% false positives at 100k revocations
+    private static final class BloomFilter {
+        private static final int BITS_LOG2 = 20;
+        private static final int PROBES = 7;
+
+        private final AtomicLongArray words = new AtomicLongArray(1 << (BITS_LOG2 - 6));
+        private final LongAdder bitsSet = new LongAdder();
+
+        void add(long nonce) {
+            long h1 = mix(nonce);
+            long h2 = mix(h1) | 1;
+            for (int i = 0; i < PROBES; i++) {
+                int bit = (int) ((h1 + i * h2) >>> (64 - BITS_LOG2));
+                int word = bit >>> 6;
+                long mask = 1L << (bit & 63);
+                long old;
+                do {
+                    old = words.get(word);
+                    if ((old & mask) != 0) break;
+                } while (!words.compareAndSet(word, old, old | mask));
+                if ((old & mask) == 0) bitsSet.increment();
+            }
+        }
+
+        boolean mightContain(long nonce) {
+            long h1 = mix(nonce);
+            long h2 = mix(h1) | 1;
+            for (int i = 0; i < PROBES; i++) {
+                int bit = (int) ((h1 + i * h2) >>> (64 - BITS_LOG2));
+                if ((words.get(bit >>> 6) & (1L << (bit & 63))) == 0) return false;
+            }
+            return true;
+        }
+
+        double fillRatio() {
+            return bitsSet.sum() / (double) (1 << BITS_LOG2);
+        }
+
+        // SplitMix64 finalizer
+        private static long mix(long z) {
+            z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+            z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+            return z ^ (z >>> 31);
+        }
+    }
+    // =======================================
+}
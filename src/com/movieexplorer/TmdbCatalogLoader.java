@@ -0,0 +1,164 @@
+package com.movieexplorer;
+
+import java.io.*;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+// Pulls the TMDb /movie/popular listing into Movies.
+// Page 1 tells us total_pages; the rest are requested concurrently on the
+// scheduler's background lane with at most `parallelism` in flight. Each body is
+// parsed as it streams in with JsonReader: only one result object at a time is ever
+// materialized (as the Map that Movie.fromTMDbData expects).
+class TmdbCatalogLoader {
+    // /movie/popular only sends genre_ids; TMDb's movie genre list rarely changes
+    static final Map<Integer, String> GENRES = Map.ofEntries(
+            Map.entry(28, "Action"), Map.entry(12, "Adventure"), Map.entry(16, "Animation"),
+            Map.entry(35, "Comedy"), Map.entry(80, "Crime"), Map.entry(99, "Documentary"),
+            Map.entry(18, "Drama"), Map.entry(10751, "Family"), Map.entry(14, "Fantasy"),
+            Map.entry(36, "History"), Map.entry(27, "Horror"), Map.entry(10402, "Music"),
+            Map.entry(9648, "Mystery"), Map.entry(10749, "Romance"), Map.entry(878, "Science Fiction"),
+            Map.entry(10770, "TV Movie"), Map.entry(53, "Thriller"), Map.entry(10752, "War"),
+            Map.entry(37, "Western"));
+
+    private final TmdbScheduler scheduler;
+    private final int maxPages;
+    private final int parallelism;
+
+    TmdbCatalogLoader(TmdbScheduler scheduler, int maxPages, int parallelism) {
+        this.scheduler = scheduler;
+        this.maxPages = maxPages;
+        this.parallelism = parallelism;
+    }
+
+    // Returns the movies in listing order, deduplicated by id (the listing shifts
+    // while we page through it, so neighbouring pages can overlap)
+    List<Movie> load() throws IOException, InterruptedException {
+        long start = System.currentTimeMillis();
+        Map<Integer, Movie> movies = new ConcurrentHashMap<>();
+        List<Movie> ordered = Collections.synchronizedList(new ArrayList<>());
+        Consumer<Movie> sink = movie -> {
+            if (movies.putIfAbsent(movie.getId(), movie) == null) ordered.add(movie);
+        };
+
+        int totalPages = fetchPage(1, sink);
+        int lastPage = Math.min(totalPages, maxPages);
+
+        Semaphore inFlight = new Semaphore(parallelism);
+        List<CompletableFuture<Integer>> pending = new ArrayList<>();
+        int failedPages = 0;
+        for (int page = 2; page <= lastPage; page++) {
+            inFlight.acquire();
+            int p = page;
+            pending.add(requestPage(p)
+                    .thenApply(response -> {
+                        try (InputStream body = response.body()) {
+                            if (response.statusCode() != 200) {
+                                throw new UncheckedIOException(new IOException("HTTP " + response.statusCode()));
+                            }
+                            return readMoviePage(body, sink);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                    .whenComplete((pages, error) -> inFlight.release()));
+        }
+
+        for (CompletableFuture<Integer> future : pending) {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                failedPages++;
+                System.out.println("⚠️ TMDb page failed: " + rootMessage(e));
+            }
+        }
+
+        System.out.println("✅ TMDb: " + movies.size() + " movies from " + (lastPage - failedPages) + "/" + lastPage +
+                " pages in " + (System.currentTimeMillis() - start) + " ms");
+        return new ArrayList<>(ordered);
+    }
+
+    private int fetchPage(int page, Consumer<Movie> sink) throws IOException {
+        HttpResponse<InputStream> response;
+        try {
+            response = requestPage(page).join();
+        } catch (CompletionException e) {
+            throw new IOException("TMDb request for page " + page + " failed: " + rootMessage(e), e);
+        }
+        try (InputStream body = response.body()) {
+            if (response.statusCode() != 200) {
+                throw new IOException("TMDb returned HTTP " + response.statusCode() + " for page " + page);
+            }
+            return readMoviePage(body, sink);
+        }
+    }
+
+    private CompletableFuture<HttpResponse<InputStream>> requestPage(int page) {
+        return scheduler.submit(TmdbScheduler.Lane.BACKGROUND, "/movie/popular?page=" + page,
+                HttpResponse.BodyHandlers.ofInputStream());
+    }
+
+    // ========== PARSING ==========
+    // Streams one TMDb result page ({"page", "results": [...], "total_pages", ...})
+    // into the sink and returns total_pages
+    static int readMoviePage(InputStream body, Consumer<Movie> sink) throws IOException {
+        int totalPages = 1;
+        try (JsonReader reader = new JsonReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (name.equals("results")) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        Movie movie = toMovie(readResult(reader));
+                        if (movie != null) sink.accept(movie);
+                    }
+                    reader.endArray();
+                } else if (name.equals("total_pages")) {
+                    totalPages = reader.nextInt();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        return totalPages;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> readResult(JsonReader reader) throws IOException {
+        return (Map<String, Object>) reader.readValue();
+    }
+
+    // One TMDb movie object (list result or /movie/{id} detail) to a Movie, or null if unusable
+    @SuppressWarnings("unchecked")
+    static Movie toMovie(Map<String, Object> data) {
+        Object id = data.get("id");
+        Object title = data.get("title");
+        if (!(id instanceof Number) || !(title instanceof String)) return null;
+
+        // List results carry genre_ids; fromTMDbData reads detail-style genres
+        if (!data.containsKey("genres") && data.get("genre_ids") instanceof List) {
+            List<Map<String, Object>> genres = new ArrayList<>();
+            for (Object genreId : (List<Object>) data.get("genre_ids")) {
+                String name = genreId instanceof Number ? GENRES.get(((Number) genreId).intValue()) : null;
+                if (name != null) genres.add(Map.of("name", name));
+            }
+            data.put("genres", genres);
+        }
+        // Explicit nulls would bypass fromTMDbData's defaults
+        data.values().removeIf(Objects::isNull);
+
+        Movie movie = Movie.fromTMDbData(data);
+        movie.getAdditionalInfo().remove("tmdb_data"); // don't pin the raw record per movie
+        return movie;
+    }
+    // =============================
+
+    private static String rootMessage(Throwable e) {
+        while (e.getCause() != null) e = e.getCause();
+        return e.getMessage() != null ? e.getMessage() : e.toString();
+    }
+}
@@ -0,0 +1,250 @@
+package com.movieexplorer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+// Keeps TMDb-sourced movies current without a restart. Each poll reads
+// /movie/changes?start_date=<day of the last complete poll>, keeps only ids we
+// already serve, fetches /movie/{id} for those and hands the whole batch to the
+// catalog in one call, so it can be published at once. Detail 404s mean the movie
+// was deleted upstream. If any fetch fails, the poll's start isn't advanced and the
+// next poll sees those ids again. enrich() uses the same detail path once after the
+// initial load, for movies the listing only partly describes.
+class TmdbChangeSync {
+    private static final int MAX_CHANGE_PAGES = 50;
+    private static final int PARALLELISM = 4;
+    private static final int ENRICH_BATCH = 100;
+
+    // What the sync needs from the served catalog
+    interface Catalog {
+        // The movie currently served for a TMDb id, or null if the id isn't tracked
+        Movie get(int id);
+
+        // Replace and remove movies as one atomic change
+        void apply(Map<Integer, Movie> updated, Set<Integer> removed);
+    }
+
+    private final TmdbScheduler tmdb;
+    private final Catalog catalog;
+    private final ScheduledExecutorService poller;
+    private volatile long lastSyncMillis;
+    private volatile long lastDurationMs;
+
+    private final LongAdder polls = new LongAdder();
+    private final LongAdder failedPolls = new LongAdder();
+    private final LongAdder changedIds = new LongAdder();
+    private final LongAdder fetched = new LongAdder();
+    private final LongAdder updated = new LongAdder();
+    private final LongAdder unchanged = new LongAdder();
+    private final LongAdder removed = new LongAdder();
+    private final LongAdder enriched = new LongAdder();
+
+    TmdbChangeSync(TmdbScheduler scheduler, Catalog catalog, long sinceMillis) {
+        this.tmdb = scheduler;
+        this.catalog = catalog;
+        this.lastSyncMillis = sinceMillis;
+        this.poller = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "tmdb-change-sync");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    void start(long intervalSeconds) {
+        poller.scheduleWithFixedDelay(this::syncQuietly, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    // ========== POLLING ==========
+    private void syncQuietly() {
+        try {
+            int applied = syncOnce();
+            if (applied > 0) System.out.println("🔄 TMDb sync: applied " + applied + " changed movies");
+        } catch (IOException e) {
+            failedPolls.increment();
+            System.out.println("⚠️ TMDb sync failed, will retry: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // One poll; returns the number of movies replaced or removed
+    int syncOnce() throws IOException, InterruptedException {
+        long pollStart = System.currentTimeMillis();
+        polls.increment();
+
+        String startDate = LocalDate.ofInstant(Instant.ofEpochMilli(lastSyncMillis), ZoneOffset.UTC).toString();
+        Set<Integer> ids = changedIds(startDate);
+        changedIds.add(ids.size());
+
+        BatchResult result = fetchAndApply(ids);
+        lastDurationMs = System.currentTimeMillis() - pollStart;
+        if (result.failures > 0) {
+            throw new IOException(result.failures + " of " + ids.size() + " movie fetches failed");
+        }
+        lastSyncMillis = pollStart;
+        return result.applied;
+    }
+
+    // Fills in details the list endpoints lack (runtime, full genres) for movies loaded
+    // from listings. Runs on the poll thread at background priority, publishing one
+    // batch at a time so movies improve progressively.
+    void enrich(Collection<Integer> ids) {
+        List<Integer> remaining = new ArrayList<>(ids);
+        poller.execute(() -> {
+            int applied = 0;
+            try {
+                for (int from = 0; from < remaining.size(); from += ENRICH_BATCH) {
+                    applied += fetchAndApply(remaining.subList(from, Math.min(from + ENRICH_BATCH, remaining.size()))).applied;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            enriched.add(applied);
+            System.out.println("✅ TMDb enrichment: detailed " + applied + " of " + remaining.size() + " movies");
+        });
+    }
+
+    // Fetches details for ids and applies the differences as one batch
+    private BatchResult fetchAndApply(Collection<Integer> ids) throws InterruptedException {
+        Map<Integer, Movie> changed = new ConcurrentHashMap<>();
+        Set<Integer> deleted = ConcurrentHashMap.newKeySet();
+        Semaphore inFlight = new Semaphore(PARALLELISM);
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        for (int id : ids) {
+            inFlight.acquire();
+            pending.add(tmdb.submit(TmdbScheduler.Lane.BACKGROUND, "/movie/" + id).thenAccept(response -> {
+                fetched.increment();
+                if (response.status == 404) {
+                    deleted.add(id);
+                } else if (response.status != 200) {
+                    throw new CompletionException(new IOException("HTTP " + response.status + " for movie " + id));
+                } else {
+                    Movie movie = TmdbCatalogLoader.toMovie(parseObject(response.body));
+                    Movie current = catalog.get(id);
+                    if (movie != null && current != null && !sameListing(current, movie)) {
+                        changed.put(id, movie);
+                    } else {
+                        unchanged.increment();
+                    }
+                }
+            }).whenComplete((ignored, error) -> inFlight.release()));
+        }
+
+        int failures = 0;
+        for (CompletableFuture<Void> future : pending) {
+            try {
+                future.join();
+            } catch (CompletionException | CancellationException e) {
+                failures++;
+            }
+        }
+
+        // Publish what we have even if some fetches failed; those ids come round again
+        if (!changed.isEmpty() || !deleted.isEmpty()) {
+            catalog.apply(changed, deleted);
+            updated.add(changed.size());
+            removed.add(deleted.size());
+        }
+        return new BatchResult(changed.size() + deleted.size(), failures);
+    }
+
+    private static final class BatchResult {
+        final int applied;
+        final int failures;
+
+        BatchResult(int applied, int failures) {
+            this.applied = applied;
+            this.failures = failures;
+        }
+    }
+
+    // Changed ids since startDate that the catalog tracks
+    private Set<Integer> changedIds(String startDate) throws IOException {
+        Set<Integer> ids = new LinkedHashSet<>();
+        int totalPages = 1;
+        for (int page = 1; page <= Math.min(totalPages, MAX_CHANGE_PAGES); page++) {
+            TmdbResponseCache.Response response = getNow("/movie/changes?start_date=" + startDate + "&page=" + page);
+            if (response.status != 200) {
+                throw new IOException("TMDb changes feed returned HTTP " + response.status);
+            }
+            try (JsonReader reader = reader(response.body)) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    if (name.equals("results")) {
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            Object id = ((Map<?, ?>) reader.readValue()).get("id");
+                            if (id instanceof Number && catalog.get(((Number) id).intValue()) != null) {
+                                ids.add(((Number) id).intValue());
+                            }
+                        }
+                        reader.endArray();
+                    } else if (name.equals("total_pages")) {
+                        totalPages = reader.nextInt();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+            }
+        }
+        return ids;
+    }
+
+    private TmdbResponseCache.Response getNow(String pathAndQuery) throws IOException {
+        try {
+            return tmdb.submit(TmdbScheduler.Lane.BACKGROUND, pathAndQuery).join();
+        } catch (CompletionException e) {
+            throw new IOException(e.getCause() != null ? e.getCause().getMessage() : e.getMessage(), e);
+        }
+    }
+    // =============================
+
+    // Fields that are served; anything else changing upstream isn't worth a republish
+    private static boolean sameListing(Movie a, Movie b) {
+        return a.getTitle().equals(b.getTitle())
+                && a.getYear() == b.getYear()
+                && a.getRating() == b.getRating()
+                && Objects.equals(a.getPoster(), b.getPoster())
+                && Objects.equals(a.getBackdrop(), b.getBackdrop())
+                && Objects.equals(a.getGenres(), b.getGenres())
+                && Objects.equals(a.getOverview(), b.getOverview())
+                && a.getRuntime() == b.getRuntime();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> parseObject(byte[] body) {
+        try (JsonReader reader = reader(body)) {
+            return (Map<String, Object>) reader.readValue();
+        } catch (IOException | ClassCastException e) {
+            throw new CompletionException(new IOException("Unreadable TMDb movie: " + e.getMessage(), e));
+        }
+    }
+
+    private static JsonReader reader(byte[] body) {
+        return new JsonReader(new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8));
+    }
+
+    Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("last_sync", Instant.ofEpochMilli(lastSyncMillis).toString());
+        stats.put("last_duration_ms", lastDurationMs);
+        stats.put("polls", polls.sum());
+        stats.put("failed_polls", failedPolls.sum());
+        stats.put("changed_ids", changedIds.sum());
+        stats.put("fetched", fetched.sum());
+        stats.put("updated", updated.sum());
+        stats.put("unchanged", unchanged.sum());
+        stats.put("removed", removed.sum());
+        stats.put("enriched", enriched.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,294 @@
+package com.movieexplorer;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+// Guarded access to the TMDb API.
+//
+// - Deadline: every call fails after deadlineMs, whatever the upstream does.
+// - Circuit breaker: the outcomes of the last WINDOW calls are kept. Once at least
+//   MIN_CALLS have been seen and half or more failed, the breaker opens and calls
+//   fail fast for OPEN_MS. After that a single trial call decides whether it closes.
+// - Hedging: if a call is still running after the recent p95 latency, one duplicate
+//   is sent and whichever answers first wins. Hedges are capped at 10% of calls so
+//   a uniformly slow upstream doesn't get double the load.
+//
+// Each instance has its own breaker, so traffic with different latency and failure
+// profiles (searches vs. background paging) gets one client each and a struggling
+// batch job can't open the breaker that searches depend on.
+class TmdbClient {
+    private static final int WINDOW = 20;
+    private static final int MIN_CALLS = 10;
+    private static final double FAILURE_THRESHOLD = 0.5;
+    private static final long OPEN_MS = 15_000;
+    private static final int LATENCY_SAMPLES = 256;
+    private static final int MIN_LATENCY_SAMPLES = 20;
+    private static final long MIN_HEDGE_DELAY_MS = 20;
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    // Thrown (as the future's cause) while the breaker is open
+    static class CircuitOpenException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        CircuitOpenException() {
+            super("TMDb circuit breaker is open");
+        }
+    }
+
+    private final String name;
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final String apiKey;
+    private final long deadlineMs;
+    private volatile BooleanSupplier hedgePermit = () -> true;
+
+    // Breaker state; transitions happen under the monitor
+    private State state = State.CLOSED;
+    private long openedAt;
+    private final boolean[] outcomes = new boolean[WINDOW]; // true = failure
+    private int outcomeCount;
+    private int outcomeIndex;
+    private int failuresInWindow;
+    private final AtomicBoolean trialInFlight = new AtomicBoolean();
+
+    // Recent successful latencies, for the hedge delay
+    private final long[] latencies = new long[LATENCY_SAMPLES];
+    private int latencyCount;
+    private int latencyIndex;
+    private volatile long p95Ms = -1;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder shortCircuited = new LongAdder();
+    private final LongAdder hedgesSent = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final AtomicInteger breakerOpenings = new AtomicInteger();
+    private final LatencyHistogram okLatency;
+    private final LatencyHistogram failedLatency;
+
+    // name labels this client's metrics and log lines, e.g. "interactive"
+    TmdbClient(String name, HttpClient httpClient, String baseUrl, String apiKey, long deadlineMs) {
+        this.name = name;
+        this.httpClient = httpClient;
+        this.baseUrl = baseUrl;
+        this.apiKey = apiKey;
+        this.deadlineMs = deadlineMs;
+
+        okLatency = Metrics.REGISTRY.timer("tmdb_call_duration_seconds",
+                "TMDb calls from send until the first answer, hedges included", "client", name, "outcome", "ok");
+        failedLatency = Metrics.REGISTRY.timer("tmdb_call_duration_seconds",
+                "TMDb calls from send until the first answer, hedges included", "client", name, "outcome", "failed");
+        Metrics.REGISTRY.counter("tmdb_timeouts_total", "TMDb calls that hit the deadline", timeouts::sum,
+                "client", name);
+        Metrics.REGISTRY.counter("tmdb_short_circuited_total", "TMDb calls failed fast by the open breaker",
+                shortCircuited::sum, "client", name);
+        Metrics.REGISTRY.counter("tmdb_hedges_total", "Duplicate TMDb requests sent by hedging", hedgesSent::sum,
+                "client", name);
+        Metrics.REGISTRY.gauge("tmdb_breaker_open", "1 while the TMDb circuit breaker is open",
+                () -> getState() == State.OPEN ? 1 : 0, "client", name);
+    }
+
+    // Asked before each hedge; lets a rate limiter veto duplicates it has no quota for
+    void setHedgePermit(BooleanSupplier hedgePermit) {
+        this.hedgePermit = hedgePermit;
+    }
+
+    // ========== CALLS ==========
+    // GET baseUrl + pathAndQuery (api_key appended). Completes with the response for any
+    // HTTP status; 5xx and 429 still count as failures for the breaker.
+    CompletableFuture<TmdbResponseCache.Response> get(String pathAndQuery) {
+        return get(pathAndQuery, HttpResponse.BodyHandlers.ofByteArray()).thenApply(TmdbClient::toResponse);
+    }
+
+    // Same, with the body delivered through handler. With a streaming handler such as
+    // ofInputStream() the call completes on the headers: the deadline and the breaker
+    // cover those only, and the caller reads and closes the body.
+    <T> CompletableFuture<HttpResponse<T>> get(String pathAndQuery, HttpResponse.BodyHandler<T> handler) {
+        boolean trial;
+        synchronized (this) {
+            if (state == State.OPEN && System.currentTimeMillis() - openedAt >= OPEN_MS) {
+                state = State.HALF_OPEN;
+            }
+            if (state == State.OPEN) {
+                shortCircuited.increment();
+                return CompletableFuture.failedFuture(new CircuitOpenException());
+            }
+            trial = state == State.HALF_OPEN;
+        }
+        if (trial && !trialInFlight.compareAndSet(false, true)) {
+            shortCircuited.increment();
+            return CompletableFuture.failedFuture(new CircuitOpenException());
+        }
+
+        calls.increment();
+        URI uri = URI.create(baseUrl + pathAndQuery + (pathAndQuery.contains("?") ? "&" : "?") + "api_key=" + apiKey);
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+
+        // The call fails only once every request sent for it has failed, in whatever order
+        AtomicInteger sent = new AtomicInteger(1);
+        AtomicInteger failedLegs = new AtomicInteger();
+        CompletableFuture<HttpResponse<T>> primary = send(uri, handler);
+        primary.whenComplete((response, error) -> {
+            if (error == null) {
+                if (!result.complete(response)) discard(response);
+            } else if (failedLegs.incrementAndGet() == sent.get()) {
+                result.completeExceptionally(error);
+            }
+        });
+
+        // Hedge once the primary is slower than p95 (not for breaker trials)
+        long hedgeDelay = p95Ms;
+        if (!trial && hedgeDelay >= 0 && hedgesSent.sum() * 10 < calls.sum()) {
+            CompletableFuture.delayedExecutor(Math.max(MIN_HEDGE_DELAY_MS, hedgeDelay), TimeUnit.MILLISECONDS)
+                    .execute(() -> {
+                        if (result.isDone() || !hedgePermit.getAsBoolean()) return;
+                        sent.incrementAndGet();
+                        hedgesSent.increment();
+                        send(uri, handler).whenComplete((response, error) -> {
+                            if (error == null) {
+                                if (result.complete(response)) {
+                                    hedgeWins.increment();
+                                    primary.cancel(true);
+                                } else {
+                                    discard(response);
+                                }
+                            } else if (failedLegs.incrementAndGet() == sent.get()) {
+                                result.completeExceptionally(error);
+                            }
+                        });
+                    });
+        }
+
+        return result.orTimeout(deadlineMs, TimeUnit.MILLISECONDS).whenComplete((response, error) -> {
+            boolean failed = error != null || response.statusCode() >= 500 || response.statusCode() == 429;
+            if (error instanceof TimeoutException || error instanceof CompletionException
+                    && error.getCause() instanceof java.net.http.HttpTimeoutException) {
+                timeouts.increment();
+            }
+            (failed ? failedLatency : okLatency).recordNanosSince(start);
+            if (!failed) recordLatency((System.nanoTime() - start) / 1_000_000);
+            record(failed, trial);
+        });
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> send(URI uri, HttpResponse.BodyHandler<T> handler) {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Accept", "application/json")
+                .timeout(Duration.ofMillis(deadlineMs))
+                .build();
+        return httpClient.sendAsync(request, handler);
+    }
+
+    static TmdbResponseCache.Response toResponse(HttpResponse<byte[]> response) {
+        return new TmdbResponseCache.Response(response.statusCode(), response.body(), retryAfterMs(response));
+    }
+
+    // Closes a response nobody will read: a losing hedge, or a 429 that gets retried
+    static void discard(HttpResponse<?> response) {
+        if (response.body() instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) response.body()).close();
+            } catch (Exception ignored) {
+            }
+        }
+    }
+
+
+    // Retry-After in delta-seconds form (what TMDb sends); dates are ignored
+    static long retryAfterMs(HttpResponse<?> response) {
+        if (response.statusCode() != 429) return 0;
+        try {
+            return response.headers().firstValue("Retry-After").map(s -> Long.parseLong(s.trim()) * 1000).orElse(0L);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+    // ===========================
+
+    // ========== BREAKER ==========
+    private synchronized void record(boolean failed, boolean trial) {
+        if (failed) failures.increment();
+
+        if (trial) {
+            trialInFlight.set(false);
+            if (failed) {
+                open();
+            } else {
+                state = State.CLOSED;
+                outcomeCount = 0;
+                outcomeIndex = 0;
+                failuresInWindow = 0;
+            }
+            return;
+        }
+        if (state != State.CLOSED) return; // late results from before the breaker opened
+
+        if (outcomeCount == WINDOW && outcomes[outcomeIndex]) failuresInWindow--;
+        outcomes[outcomeIndex] = failed;
+        if (failed) failuresInWindow++;
+        outcomeIndex = (outcomeIndex + 1) % WINDOW;
+        outcomeCount = Math.min(WINDOW, outcomeCount + 1);
+
+        if (outcomeCount >= MIN_CALLS && failuresInWindow >= FAILURE_THRESHOLD * outcomeCount) {
+            open();
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.currentTimeMillis();
+        breakerOpenings.incrementAndGet();
+        System.out.println("⚠️ TMDb " + name + " circuit breaker opened (" + failuresInWindow + "/" + outcomeCount + " recent calls failed)");
+    }
+
+    synchronized State getState() {
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= OPEN_MS) return State.HALF_OPEN;
+        return state;
+    }
+    // =============================
+
+    // ========== LATENCY ==========
+    private synchronized void recordLatency(long millis) {
+        latencies[latencyIndex] = millis;
+        latencyIndex = (latencyIndex + 1) % LATENCY_SAMPLES;
+        latencyCount = Math.min(LATENCY_SAMPLES, latencyCount + 1);
+
+        // Recompute every few samples; hedging doesn't need an exact p95
+        if (latencyCount >= MIN_LATENCY_SAMPLES && latencyIndex % 8 == 0) {
+            long[] sorted = Arrays.copyOf(latencies, latencyCount);
+            Arrays.sort(sorted);
+            p95Ms = sorted[(int) Math.ceil(0.95 * latencyCount) - 1];
+        }
+    }
+    // =============================
+
+    Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        State current = getState();
+        synchronized (this) {
+            stats.put("breaker_state", current.name());
+            stats.put("window_failure_rate", outcomeCount == 0 ? 0.0 : failuresInWindow / (double) outcomeCount);
+        }
+        stats.put("breaker_openings", breakerOpenings.get());
+        stats.put("calls", calls.sum());
+        stats.put("failures", failures.sum());
+        stats.put("timeouts", timeouts.sum());
+        stats.put("short_circuited", shortCircuited.sum());
+        stats.put("hedges_sent", hedgesSent.sum());
+        stats.put("hedge_wins", hedgeWins.sum());
+        stats.put("p95_ms", p95Ms);
+        return stats;
+    }
+}
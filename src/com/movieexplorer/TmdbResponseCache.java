@@ -0,0 +1,256 @@
+package com.movieexplorer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// Cache in front of TMDb search, keyed by normalized query.
+//
+// - Concurrent misses for a key share one in-flight CompletableFuture (single flight),
+//   so upstream traffic follows the number of distinct queries, not the request rate.
+// - Hits within the TTL are served from memory. After that, for a further stale
+//   window, the old body is served at once while one background refresh runs.
+// - Empty result sets and 4xx answers are cached too, for a shorter time.
+// - Upstream failures (errors, 5xx, 429) are never cached. A stale body is served
+//   instead if there is one; otherwise the future fails with UpstreamException.
+// - Size is bounded; past the cap, the least recently read of a small random sample
+//   is evicted.
+class TmdbResponseCache {
+    private static final int EVICTION_SAMPLE = 16;
+
+    // Thrown (as the future's cause) when TMDb answers 5xx or 429 and nothing stale is usable
+    static class UpstreamException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        UpstreamException(int status) {
+            super("TMDb answered " + status);
+            this.status = status;
+        }
+    }
+
+    // An upstream answer: status and raw JSON body
+    static final class Response {
+        final int status;
+        final byte[] body;
+        final long retryAfterMs; // from a 429's Retry-After header, else 0
+
+        Response(int status, byte[] body) {
+            this(status, body, 0);
+        }
+
+        Response(int status, byte[] body, long retryAfterMs) {
+            this.status = status;
+            this.body = body;
+            this.retryAfterMs = retryAfterMs;
+        }
+    }
+
+    private final Function<String, CompletableFuture<Response>> upstream;
+    private final long ttlMs;
+    private final long negativeTtlMs;
+    private final long staleMs;
+    private final int maxEntries;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder upstreamCalls = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    TmdbResponseCache(Function<String, CompletableFuture<Response>> upstream,
+                      long ttlMs, long negativeTtlMs, long staleMs, int maxEntries) {
+        this.upstream = upstream;
+        this.ttlMs = ttlMs;
+        this.negativeTtlMs = negativeTtlMs;
+        this.staleMs = staleMs;
+        this.maxEntries = maxEntries;
+    }
+
+    // ========== LOOKUP ==========
+    CompletableFuture<Response> get(String query) {
+        String key = normalize(query);
+        long now = System.currentTimeMillis();
+
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            entry.lastRead = now;
+            if (!entry.future.isDone()) {
+                coalesced.increment();
+                return entry.future.copy();
+            }
+            if (now < entry.expiresAt) {
+                (entry.negative ? negativeHits : hits).increment();
+                return entry.future.copy();
+            }
+            if (now < entry.expiresAt + staleMs && entry.isUsable()) {
+                staleHits.increment();
+                revalidate(key, entry);
+                return entry.future.copy();
+            }
+        }
+
+        Entry created = new Entry(new CompletableFuture<>());
+        Entry winner = entries.compute(key, (k, current) ->
+                // Someone else may have started or finished a fetch since our read
+                current != null && current != entry ? current : created);
+        if (winner == created) {
+            misses.increment();
+            fetch(key, created, entry);
+            if (entries.size() > maxEntries) evictOne();
+        } else {
+            coalesced.increment();
+        }
+        return winner.future.copy();
+    }
+
+    // Runs the upstream call outside the map lock and completes target with it. On
+    // failure the previous usable entry (if any) is put back and its body served.
+    private void fetch(String key, Entry target, Entry previous) {
+        upstreamCalls.increment();
+        CompletableFuture<Response> call;
+        try {
+            call = upstream.apply(key);
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+
+        call.whenComplete((response, error) -> {
+            if (error != null || response.status >= 500 || response.status == 429) {
+                if (previous != null && previous.isUsable()) {
+                    entries.replace(key, target, previous);
+                    target.future.complete(previous.future.join());
+                } else {
+                    entries.remove(key, target);
+                    target.future.completeExceptionally(error != null
+                            ? unwrap(error) : new UpstreamException(response.status));
+                }
+                return;
+            }
+            boolean negative = response.status != 200 || isEmptyResultSet(response.body);
+            target.stamp(negative, System.currentTimeMillis() + (negative ? negativeTtlMs : ttlMs));
+            target.future.complete(response);
+        });
+    }
+
+    // Stale hit: one background refresh per entry; readers keep the stale body meanwhile
+    private void revalidate(String key, Entry stale) {
+        if (!stale.refreshing.compareAndSet(false, true)) return;
+        upstreamCalls.increment();
+        CompletableFuture<Response> call;
+        try {
+            call = upstream.apply(key);
+        } catch (RuntimeException e) {
+            stale.refreshing.set(false);
+            return;
+        }
+        call.whenComplete((response, error) -> {
+            if (error != null || response.status >= 500 || response.status == 429) {
+                stale.refreshing.set(false); // try again on a later read
+                return;
+            }
+            boolean negative = response.status != 200 || isEmptyResultSet(response.body);
+            Entry fresh = new Entry(CompletableFuture.completedFuture(response));
+            fresh.stamp(negative, System.currentTimeMillis() + (negative ? negativeTtlMs : ttlMs));
+            entries.replace(key, stale, fresh);
+        });
+    }
+    // ============================
+
+    // ========== EVICTION ==========
+    // Approximate LRU: least recently read of a random sample
+    private void evictOne() {
+        List<String> keys = new ArrayList<>(EVICTION_SAMPLE);
+        int skip = ThreadLocalRandom.current().nextInt(Math.max(1, entries.size() - EVICTION_SAMPLE));
+        Iterator<String> it = entries.keySet().iterator();
+        while (skip-- > 0 && it.hasNext()) it.next();
+        while (keys.size() < EVICTION_SAMPLE && it.hasNext()) keys.add(it.next());
+
+        String victim = null;
+        long oldest = Long.MAX_VALUE;
+        for (String key : keys) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.future.isDone() && entry.lastRead < oldest) {
+                victim = key;
+                oldest = entry.lastRead;
+            }
+        }
+        if (victim != null && entries.remove(victim) != null) {
+            evictions.increment();
+        }
+    }
+    // ==============================
+
+    static String normalize(String query) {
+        return query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    // Cheap streaming check for {"total_results": 0, ...}
+    private static boolean isEmptyResultSet(byte[] body) {
+        try (JsonReader reader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (reader.nextName().equals("total_results")) {
+                    return reader.nextLong() == 0;
+                }
+                reader.skipValue();
+            }
+        } catch (IOException | RuntimeException e) {
+            // Not a result page; treat as a normal body
+        }
+        return false;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof java.util.concurrent.CompletionException && error.getCause() != null
+                ? error.getCause() : error;
+    }
+
+    Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("hits", hits.sum());
+        stats.put("negative_hits", negativeHits.sum());
+        stats.put("stale_hits", staleHits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("coalesced", coalesced.sum());
+        stats.put("upstream_calls", upstreamCalls.sum());
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+
+    private static final class Entry {
+        final CompletableFuture<Response> future;
+        final AtomicBoolean refreshing = new AtomicBoolean();
+        volatile long expiresAt = Long.MAX_VALUE; // set when the fetch completes
+        volatile boolean negative;
+        volatile long lastRead = System.currentTimeMillis();
+
+        Entry(CompletableFuture<Response> future) {
+            this.future = future;
+        }
+
+        void stamp(boolean negative, long expiresAt) {
+            this.negative = negative;
+            this.expiresAt = expiresAt;
+        }
+
+        // Completed with an answer worth serving again
+        boolean isUsable() {
+            return future.isDone() && !future.isCompletedExceptionally() && expiresAt != Long.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package com.movieexplorer;
+
+import java.net.http.HttpResponse;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Single gate for all TMDb API traffic, so the whole process stays inside one request
+// quota however many features call TMDb.
+//
+// - A token bucket holds the request rate: ratePerSecond, with bursts up to `burst`.
+// - There are two lanes. Interactive requests (user searches) always go first.
+//   Background requests (catalog load, change sync, enrichment) only run while a
+//   quarter of the bucket is left in reserve, and at most MAX_BACKGROUND_IN_FLIGHT
+//   at a time. So a background backlog never delays a search.
+// - Identical requests that are queued or in flight share one call. An interactive
+//   request for something queued in the background lane moves it to the front.
+//   Requests with their own body handler (streamed bodies) are never shared.
+// - A 429 pauses the whole bucket for Retry-After (or an exponential backoff with
+//   full jitter) and requeues the request, up to MAX_RETRIES times.
+// - Interactive requests still queued after their deadline fail rather than being
+//   sent late.
+// - Each lane sends through its own TmdbClient, so background failures (a slow
+//   bulk page, a burst of 429s) never count towards the breaker searches use. A
+//   background request promoted by a search is sent as interactive.
+class TmdbScheduler {
+    private static final int MAX_RETRIES = 3;
+    private static final long BACKOFF_BASE_MS = 500;
+    private static final long BACKOFF_MAX_MS = 30_000;
+    private static final int MAX_BACKGROUND_IN_FLIGHT = 4;
+    private static final int MAX_QUEUED_INTERACTIVE = 200;
+    private static final int MAX_QUEUED_BACKGROUND = 5_000;
+
+    enum Lane { INTERACTIVE, BACKGROUND }
+
+    // Thrown (as the future's cause) when a lane's queue is full
+    static class BusyException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        BusyException(String message) {
+            super(message);
+        }
+    }
+
+    private final TmdbClient interactiveClient;
+    private final TmdbClient backgroundClient;
+    private final double tokensPerNano;
+    private final double burst;
+    private final double backgroundReserve;
+    private final long interactiveDeadlineMs;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final ArrayDeque<Task<?>> interactive = new ArrayDeque<>();
+    private final ArrayDeque<Task<?>> background = new ArrayDeque<>();
+    private final Map<String, Task<byte[]>> pending = new HashMap<>(); // shared calls queued or in flight, by path
+    private double tokens;
+    private long refilledAt = System.nanoTime();
+    private long pausedUntil = refilledAt;
+    private int backgroundInFlight;
+
+    private final ScheduledExecutorService retries;
+
+    private final LongAdder[] dispatched = {new LongAdder(), new LongAdder()};
+    private final LongAdder deduplicated = new LongAdder();
+    private final LongAdder promoted = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder hedgeTokens = new LongAdder();
+
+    TmdbScheduler(TmdbClient interactiveClient, TmdbClient backgroundClient, double ratePerSecond, int burst,
+                  long interactiveDeadlineMs) {
+        this.interactiveClient = interactiveClient;
+        this.backgroundClient = backgroundClient;
+        this.tokensPerNano = ratePerSecond / 1e9;
+        this.burst = burst;
+        this.tokens = burst;
+        this.backgroundReserve = burst / 4.0;
+        this.interactiveDeadlineMs = interactiveDeadlineMs;
+        this.retries = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "tmdb-retry");
+            t.setDaemon(true);
+            return t;
+        });
+        Thread dispatcher = new Thread(this::dispatchLoop, "tmdb-scheduler");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+        // Hedged duplicates spend quota too, but only what interactive work leaves over
+        interactiveClient.setHedgePermit(this::tryAcquireSpare);
+        backgroundClient.setHedgePermit(this::tryAcquireSpare);
+    }
+
+    // ========== SUBMISSION ==========
+    CompletableFuture<TmdbResponseCache.Response> submit(Lane lane, String pathAndQuery) {
+        lock.lock();
+        try {
+            Task<byte[]> task = pending.get(pathAndQuery);
+            if (task != null) {
+                deduplicated.increment();
+                if (lane == Lane.INTERACTIVE && task.lane == Lane.BACKGROUND && background.remove(task)) {
+                    task.lane = Lane.INTERACTIVE;
+                    task.queuedAt = System.currentTimeMillis();
+                    interactive.addFirst(task);
+                    promoted.increment();
+                    changed.signal();
+                }
+                return task.future.thenApply(TmdbClient::toResponse);
+            }
+
+            task = new Task<>(lane, pathAndQuery, HttpResponse.BodyHandlers.ofByteArray());
+            if (!enqueue(task)) {
+                return CompletableFuture.failedFuture(new BusyException("TMDb " + lane + " queue full"));
+            }
+            pending.put(pathAndQuery, task);
+            return task.future.thenApply(TmdbClient::toResponse);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The response with its body delivered through handler, e.g. ofInputStream() to
+    // parse it as it arrives. Completes on the headers and the caller closes the body.
+    // Never shared with identical requests: a stream can only be read once. A 429 is
+    // retried like any other; callers see the final answer only.
+    <T> CompletableFuture<HttpResponse<T>> submit(Lane lane, String pathAndQuery, HttpResponse.BodyHandler<T> handler) {
+        lock.lock();
+        try {
+            Task<T> task = new Task<>(lane, pathAndQuery, handler);
+            if (!enqueue(task)) {
+                return CompletableFuture.failedFuture(new BusyException("TMDb " + lane + " queue full"));
+            }
+            return task.future.copy();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called with the lock held; false if the task's queue is full
+    private boolean enqueue(Task<?> task) {
+        ArrayDeque<Task<?>> queue = task.lane == Lane.INTERACTIVE ? interactive : background;
+        if (queue.size() >= (task.lane == Lane.INTERACTIVE ? MAX_QUEUED_INTERACTIVE : MAX_QUEUED_BACKGROUND)) {
+            rejected.increment();
+            return false;
+        }
+        queue.addLast(task);
+        changed.signal();
+        return true;
+    }
+
+    // Takes a token only if one is free beyond what queued interactive work needs
+    boolean tryAcquireSpare() {
+        lock.lock();
+        try {
+            refill();
+            if (System.nanoTime() < pausedUntil || !interactive.isEmpty() || tokens < 1 + backgroundReserve) {
+                return false;
+            }
+            tokens -= 1;
+            hedgeTokens.increment();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+    // ================================
+
+    // ========== DISPATCH ==========
+    private void dispatchLoop() {
+        while (true) {
+            Task<?> task;
+            try {
+                task = next();
+            } catch (InterruptedException e) {
+                return;
+            }
+            dispatch(task);
+        }
+    }
+
+    // Blocks until a task may be sent and a token is taken for it
+    private Task<?> next() throws InterruptedException {
+        lock.lock();
+        try {
+            while (true) {
+                refill();
+                long now = System.nanoTime();
+                if (now < pausedUntil) {
+                    changed.awaitNanos(pausedUntil - now);
+                    continue;
+                }
+
+                expireInteractive();
+                Task<?> head = interactive.peekFirst();
+                double needed = 1;
+                if (head == null && backgroundInFlight < MAX_BACKGROUND_IN_FLIGHT) {
+                    head = background.peekFirst();
+                    needed = 1 + backgroundReserve;
+                }
+                if (head == null) {
+                    changed.await();
+                    continue;
+                }
+                if (tokens < needed) {
+                    changed.awaitNanos((long) Math.ceil((needed - tokens) / tokensPerNano));
+                    continue;
+                }
+
+                (head.lane == Lane.INTERACTIVE ? interactive : background).pollFirst();
+                tokens -= 1;
+                if (head.lane == Lane.BACKGROUND) backgroundInFlight++;
+                head.dispatchedLane = head.lane;
+                return head;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private <T> void dispatch(Task<T> task) {
+        dispatched[task.dispatchedLane.ordinal()].increment();
+        TmdbClient client = task.dispatchedLane == Lane.INTERACTIVE ? interactiveClient : backgroundClient;
+        client.get(task.path, task.handler).whenComplete((response, error) -> {
+            if (error == null && response.statusCode() == 429 && task.attempts < MAX_RETRIES) {
+                TmdbClient.discard(response);
+                retryLater(task, TmdbClient.retryAfterMs(response));
+                return;
+            }
+            finish(task);
+            if (error != null) {
+                task.future.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+            } else {
+                task.future.complete(response);
+            }
+        });
+    }
+
+    private void retryLater(Task<?> task, long retryAfterMs) {
+        throttled.increment();
+        task.attempts++;
+        long backoff = Math.min(BACKOFF_MAX_MS, BACKOFF_BASE_MS << task.attempts);
+        long delayMs = Math.max(retryAfterMs, ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1));
+
+        lock.lock();
+        try {
+            if (task.dispatchedLane == Lane.BACKGROUND) backgroundInFlight--;
+            // The quota is shared, so nobody should send until the window has passed
+            pausedUntil = Math.max(pausedUntil, System.nanoTime() + delayMs * 1_000_000);
+            tokens = 0;
+            (task.lane == Lane.INTERACTIVE ? interactive : background).addFirst(task);
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void finish(Task<?> task) {
+        lock.lock();
+        try {
+            pending.remove(task.path, task);
+            if (task.dispatchedLane == Lane.BACKGROUND) backgroundInFlight--;
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called with the lock held
+    private void expireInteractive() {
+        long cutoff = System.currentTimeMillis() - interactiveDeadlineMs;
+        while (!interactive.isEmpty() && interactive.peekFirst().queuedAt < cutoff) {
+            Task<?> task = interactive.pollFirst();
+            pending.remove(task.path, task);
+            expired.increment();
+            task.future.completeExceptionally(new TimeoutException("Queued for TMDb longer than " + interactiveDeadlineMs + " ms"));
+        }
+    }
+
+    // Called with the lock held
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+    }
+    // ==============================
+
+    Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            refill();
+            stats.put("tokens", Math.floor(tokens * 10) / 10);
+            stats.put("queued_interactive", interactive.size());
+            stats.put("queued_background", background.size());
+            stats.put("background_in_flight", backgroundInFlight);
+            stats.put("paused_ms", Math.max(0, (pausedUntil - System.nanoTime()) / 1_000_000));
+        } finally {
+            lock.unlock();
+        }
+        stats.put("dispatched_interactive", dispatched[Lane.INTERACTIVE.ordinal()].sum());
+        stats.put("dispatched_background", dispatched[Lane.BACKGROUND.ordinal()].sum());
+        stats.put("hedge_tokens", hedgeTokens.sum());
+        stats.put("deduplicated", deduplicated.sum());
+        stats.put("promoted", promoted.sum());
+        stats.put("throttled", throttled.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("expired", expired.sum());
+        return stats;
+    }
+
+    private static final class Task<T> {
+        final String path;
+        final HttpResponse.BodyHandler<T> handler;
+        final CompletableFuture<HttpResponse<T>> future = new CompletableFuture<>();
+        Lane lane;
+        Lane dispatchedLane;
+        long queuedAt = System.currentTimeMillis();
+        int attempts;
+
+        Task(Lane lane, String path, HttpResponse.BodyHandler<T> handler) {
+            this.lane = lane;
+            this.path = path;
+            this.handler = handler;
+        }
+    }
+}
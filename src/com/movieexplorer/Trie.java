@@ -3,6 +3,9 @@ package com.movieexplorer;
 import java.util.*;
 
 public class Trie {
+    // Per-query timings; off unless LOG_LEVEL=DEBUG
+    private static final Log.Site SEARCH_LOG = Log.site("trie.search");
+
     private TrieNode root;
     private int totalMovieCount; // Cache for faster getMovieCount()
     private Map<String, Movie> movieMap; // For quick lookups by ID
@@ -76,13 +79,66 @@ public class Trie {
             return getPopularMovies(limit);
         }
 
+        List<Movie> results = matches(prefix);
+        results.sort(relevanceOrder(prefix));
+
+        // Limit results
+        if (results.size() > limit) {
+            results = results.subList(0, limit);
+        }
+
+        if (SEARCH_LOG.isEnabled(Log.Level.DEBUG)) { // skips boxing the elapsed time when off
+            SEARCH_LOG.debug("🔍 Trie search: \"{}\" → {} results ({} ms)",
+                    prefix, results.size(), (System.nanoTime() - startTime) / 1_000_000.0);
+        }
+
+        return results;
+    }
+
+    // One page of search(prefix): the first `limit` matches that come strictly after
+    // `after` in relevanceOrder (from the start if null), plus the total match count.
+    // Only a heap of `limit` entries is ordered, not every match, so deep pages of a
+    // broad prefix cost a pass over the matches rather than a full sort.
+    public SearchPage searchAfter(String prefix, Movie after, int limit) {
+        prefix = prefix.toLowerCase().trim();
+        Comparator<Movie> order = relevanceOrder(prefix);
+        List<Movie> matches = matches(prefix);
+
+        // Worst of the current best `limit` on top, so it is the one replaced
+        PriorityQueue<Movie> best = new PriorityQueue<>(limit + 1, order.reversed());
+        for (Movie movie : matches) {
+            if (after != null && order.compare(movie, after) <= 0) continue;
+            if (best.size() < limit) {
+                best.add(movie);
+            } else if (!best.isEmpty() && order.compare(movie, best.peek()) < 0) {
+                best.poll();
+                best.add(movie);
+            }
+        }
+        List<Movie> page = new ArrayList<>(best);
+        page.sort(order);
+        return new SearchPage(page, matches.size());
+    }
+
+    public static final class SearchPage {
+        public final List<Movie> movies;
+        public final int totalResults;
+
+        SearchPage(List<Movie> movies, int totalResults) {
+            this.movies = movies;
+            this.totalResults = totalResults;
+        }
+    }
+
+    // Every movie whose title starts with the (lower-cased, trimmed) prefix, unordered
+    private List<Movie> matches(String prefix) {
         TrieNode current = root;
 
         // Navigate to the prefix node
         for (char ch : prefix.toCharArray()) {
             current = current.children.get(ch);
             if (current == null) {
-                return Collections.emptyList();
+                return new ArrayList<>();
             }
         }
 
@@ -91,17 +147,22 @@ public class Trie {
         collectMovieIds(current, movieIds);
 
         // Convert IDs to Movie objects
-        List<Movie> results = new ArrayList<>();
+        List<Movie> results = new ArrayList<>(movieIds.size());
         for (int id : movieIds) {
             Movie movie = movieMap.get(String.valueOf(id));
             if (movie != null) {
                 results.add(movie);
             }
         }
-// Make a final copy of prefix for the lambda
-        final String finalPrefix = prefix;
+        return results;
+    }
+
+    // Search ranking: prefix matches first, then rating, then year (newer first).
+    // The final id tie-break makes the order total, so keyset cursors are stable.
+    public static Comparator<Movie> relevanceOrder(String prefix) {
+        final String finalPrefix = prefix.toLowerCase().trim();
 
-        results.sort((m1, m2) -> {
+        return (m1, m2) -> {
             // First by exact match at beginning
             boolean m1Starts = m1.getTitle().toLowerCase().startsWith(finalPrefix);
             boolean m2Starts = m2.getTitle().toLowerCase().startsWith(finalPrefix);
@@ -114,19 +175,11 @@ public class Trie {
             if (ratingCompare != 0) return ratingCompare;
 
             // Then by year (newer first)
-            return Integer.compare(m2.getYear(), m1.getYear());
-        });
-
-        // Limit results
-        if (results.size() > limit) {
-            results = results.subList(0, limit);
-        }
-
-        long endTime = System.nanoTime();
-        System.out.println(String.format("🔍 Trie search: \"%s\" → %d results (%.2f ms)",
-                prefix, results.size(), (endTime - startTime) / 1_000_000.0));
+            int yearCompare = Integer.compare(m2.getYear(), m1.getYear());
+            if (yearCompare != 0) return yearCompare;
 
-        return results;
+            return Integer.compare(m1.getId(), m2.getId());
+        };
     }
 
     private void collectMovieIds(TrieNode node, Set<Integer> movieIds) {
@@ -345,42 +398,37 @@ public class Trie {
         totalMovieCount = 0;
     }
 
-    // Remove a movie from Trie
+    // Remove a movie from Trie, undoing its insert: counts along the path drop and
+    // branches that no other title passes through are pruned
     public boolean remove(String title, int movieId) {
-        return remove(root, title.toLowerCase(), 0, movieId);
-    }
-
-    private boolean remove(TrieNode node, String title, int index, int movieId) {
-        if (node == null) return false;
+        title = title.toLowerCase().trim();
+        List<TrieNode> path = new ArrayList<>(title.length() + 1);
+        TrieNode current = root;
+        path.add(current);
 
-        if (index == title.length()) {
-            if (node.isEndOfWord) {
-                boolean removed = node.movieIds.remove(Integer.valueOf(movieId));
-                if (removed) {
-                    movieMap.remove(String.valueOf(movieId));
-                    totalMovieCount--;
+        for (char ch : title.toCharArray()) {
+            current = current.children.get(ch);
+            if (current == null) return false;
+            path.add(current);
+        }
 
-                    if (node.movieIds.isEmpty()) {
-                        node.isEndOfWord = false;
-                    }
-                    return true;
-                }
-            }
+        if (!current.isEndOfWord || !current.movieIds.remove(Integer.valueOf(movieId))) {
             return false;
         }
-
-        char ch = title.charAt(index);
-        TrieNode child = node.children.get(ch);
-        if (child == null) return false;
-
-        boolean shouldDeleteChild = remove(child, title, index + 1, movieId);
-
-        if (shouldDeleteChild && !child.isEndOfWord && child.children.isEmpty()) {
-            node.children.remove(ch);
-            return node.children.isEmpty() && !node.isEndOfWord;
+        movieMap.remove(String.valueOf(movieId));
+        totalMovieCount--;
+        if (current.movieIds.isEmpty()) {
+            current.isEndOfWord = false;
         }
 
-        return false;
+        for (int i = title.length(); i > 0; i--) {
+            TrieNode node = path.get(i);
+            node.wordCount--;
+            if (!node.isEndOfWord && node.children.isEmpty()) {
+                path.get(i - 1).children.remove(title.charAt(i - 1));
+            }
+        }
+        return true;
     }
     // =====================================
 